@@ -2,8 +2,12 @@ package org.jboss.set.channel.cli;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.aether.repository.RemoteRepository;
-import org.jboss.set.channel.cli.report.FormattingReportBuilder;
+import org.jboss.set.channel.cli.progress.ProgressReporter;
+import org.jboss.set.channel.cli.report.ReportFormat;
+import org.jboss.set.channel.cli.resolver.ResolverContext;
+import org.jboss.set.channel.cli.utils.ConcurrencyUtils;
 import org.jboss.set.channel.cli.utils.ConversionUtils;
+import org.jboss.set.channel.cli.utils.IOUtils;
 import org.wildfly.channel.Channel;
 import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.MavenArtifact;
@@ -13,11 +17,16 @@ import org.wildfly.channel.maven.ChannelCoordinate;
 import org.wildfly.channel.maven.VersionResolverFactory;
 import picocli.CommandLine;
 
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 @CommandLine.Command(name = "compare-channels",
         description = "Generates report that identifies intersecting streams of two given channels, and highlights " +
@@ -38,47 +47,122 @@ public class CompareChannelsCommand extends MavenBasedCommand {
             paramLabel = "URL")
     private List<String> channelRepositoriesUrls;
 
+    @CommandLine.Option(names = "--record-snapshot",
+            description = "Record all fetched channels, manifests, blocklists and repository metadata into given snapshot archive.",
+            paramLabel = "file")
+    private Path recordSnapshot;
+
+    @CommandLine.Option(names = "--replay-snapshot",
+            description = "Replay a snapshot archive recorded by a previous run, without accessing the network.",
+            paramLabel = "file")
+    private Path replaySnapshot;
+
+    @CommandLine.Option(names = "--progress", defaultValue = "AUTO",
+            description = "Progress reporting on stderr, one of ${COMPLETION-CANDIDATES}. AUTO re-draws a status line when running in a terminal, and prints periodic summary lines otherwise.",
+            paramLabel = "mode")
+    private ProgressReporter.Mode progressMode;
+
+    @CommandLine.Option(names = "--progress-interval", defaultValue = "30",
+            description = "Interval in seconds between the progress summary lines, when not running in a terminal.",
+            paramLabel = "seconds")
+    private int progressInterval;
+
+    @CommandLine.Option(names = "--report-format", defaultValue = "STATIC",
+            description = "Format of the HTML report, one of ${COMPLETION-CANDIDATES}. INTERACTIVE embeds the data as JSON and renders the rows in the browser, which keeps very large reports small and fast to open.",
+            paramLabel = "format")
+    private ReportFormat reportFormat;
+
+    @CommandLine.Option(names = {"--output-file", "-o"}, defaultValue = "report.html",
+            description = "Report file to be written.")
+    private Path outputFile;
+
+    private ProgressReporter progress;
+
     @Override
     public Integer call() throws Exception {
-        final ChannelCoordinate baseCoordinate = ConversionUtils.toChannelCoordinate(baseChannelCoordinate);
-        final ChannelCoordinate targetCoordinate = ConversionUtils.toChannelCoordinate(targetChannelCoordinate);
-        final List<RemoteRepository> channelRepositories = ConversionUtils.toRepositoryList(channelRepositoriesUrls);
-
-        try (VersionResolverFactory resolverFactory = new VersionResolverFactory(system, systemSession)) {
-            List<Channel> baseChannels = resolverFactory.resolveChannels(List.of(baseCoordinate), channelRepositories);
-            List<Channel> targetChannels = resolverFactory.resolveChannels(List.of(targetCoordinate), channelRepositories);
+        openSnapshot(recordSnapshot, replaySnapshot);
+        try (ProgressReporter progress = startProgress("compare-channels", progressMode, progressInterval)) {
+            this.progress = progress;
+            return compareChannels();
+        } finally {
+            closeSnapshot();
+        }
+    }
 
-            ChannelSession baseChannelSession = new ChannelSession(baseChannels, resolverFactory);
-            ChannelSession targetChannelSession = new ChannelSession(targetChannels, resolverFactory);
+    private Integer compareChannels() throws Exception {
+        final ChannelCoordinate baseCoordinate = localize(ConversionUtils.toChannelCoordinate(baseChannelCoordinate));
+        final ChannelCoordinate targetCoordinate = localize(ConversionUtils.toChannelCoordinate(targetChannelCoordinate));
+        final List<RemoteRepository> channelRepositories = ConversionUtils.toRepositoryList(channelRepositoriesUrls);
 
-            Set<Stream> baseStreams = resolveStreams(baseChannels, resolverFactory);
+        try (ResolverContext resolverContext = newResolverContext()) {
+            VersionResolverFactory resolverFactory = resolverContext.getResolverFactory();
+            List<Channel> baseChannels = localize(resolverFactory.resolveChannels(List.of(baseCoordinate), channelRepositories));
+            List<Channel> targetChannels = localize(resolverFactory.resolveChannels(List.of(targetCoordinate), channelRepositories));
 
-            ArrayList<Pair<MavenArtifact, List<String>>> diff = new ArrayList<>();
+            Set<Stream> baseStreams = resolverContext.resolveStreams(baseChannels);
+            // The comparison stops after the first opensaml stream, the streams after it are not resolved at all.
+            List<Stream> comparedStreams = new ArrayList<>();
             for (Stream stream : baseStreams) {
-                try {
-                    MavenArtifact baseArtifact = baseChannelSession.resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null);
-                    MavenArtifact targetArtifact = targetChannelSession.resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null);
-                    if (!baseArtifact.getVersion().equals(targetArtifact.getVersion())) {
-                        diff.add(Pair.of(baseArtifact, List.of(targetArtifact.getVersion())));
-                        System.out.printf("%s:%s:%s -> %s%n", baseArtifact.getGroupId(), baseArtifact.getArtifactId(),
-                                baseArtifact.getVersion(), targetArtifact.getVersion());
-                    }
-                } catch (RuntimeException e) {
-                    logger.errorf(e, "Failure to compare stream %s", stream);
-                }
+                comparedStreams.add(stream);
                 if (stream.getGroupId().contains("opensaml")) {
                     break;
                 }
             }
+            progress.setTotal(comparedStreams.size());
+
+            ArrayList<Pair<MavenArtifact, List<String>>> diff = new ArrayList<>();
+            // Streams are resolved concurrently, results are processed in submission order.
+            final int threads = Math.max(1, Math.min(maxConcurrentRequests, comparedStreams.size()));
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            // Nothing guarantees that a ChannelSession supports concurrent calls, so each thread takes a pair of
+            // sessions of its own. They are created upfront on this thread, and only share the repository system,
+            // which is thread-safe, and the repository session, which is no longer modified at this point.
+            final BlockingQueue<Pair<ChannelSession, ChannelSession>> idleSessions = new LinkedBlockingQueue<>();
+            try {
+                for (int i = 0; i < threads; i++) {
+                    idleSessions.add(Pair.of(new ChannelSession(baseChannels, resolverFactory),
+                            new ChannelSession(targetChannels, resolverFactory)));
+                }
+
+                List<Pair<Stream, Future<Pair<MavenArtifact, MavenArtifact>>>> futures = new ArrayList<>();
+                for (Stream stream : comparedStreams) {
+                    futures.add(Pair.of(stream, executor.submit(() -> {
+                        final Pair<ChannelSession, ChannelSession> channelSessions = idleSessions.take();
+                        try {
+                            return Pair.of(
+                                    channelSessions.getLeft().resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null),
+                                    channelSessions.getRight().resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null));
+                        } finally {
+                            idleSessions.add(channelSessions);
+                        }
+                    })));
+                }
+
+                for (Pair<Stream, Future<Pair<MavenArtifact, MavenArtifact>>> entry : futures) {
+                    Stream stream = entry.getLeft();
+                    try {
+                        Pair<MavenArtifact, MavenArtifact> artifacts = ConcurrencyUtils.getResult(entry.getRight());
+                        MavenArtifact baseArtifact = artifacts.getLeft();
+                        MavenArtifact targetArtifact = artifacts.getRight();
+                        if (!baseArtifact.getVersion().equals(targetArtifact.getVersion())) {
+                            diff.add(Pair.of(baseArtifact, List.of(targetArtifact.getVersion())));
+                            System.out.printf("%s:%s:%s -> %s%n", baseArtifact.getGroupId(), baseArtifact.getArtifactId(),
+                                    baseArtifact.getVersion(), targetArtifact.getVersion());
+                        }
+                    } catch (RuntimeException e) {
+                        logger.errorf(e, "Failure to compare stream %s", stream);
+                    }
+                    progress.completed();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
 
             List<Repository> targetRepositories = targetChannels.stream()
                     .flatMap(ch -> ch.getRepositories().stream())
                     .toList();
-            String reportHtml = new FormattingReportBuilder()
-                    .withRepositories(targetRepositories)
-                    .withUpgrades(diff)
-                    .build();
-            Files.write(Path.of("report.html"), reportHtml.getBytes());
+            String reportHtml = reportFormat.build(targetRepositories, diff, null, null);
+            IOUtils.writeIfChanged(outputFile, reportHtml.getBytes(StandardCharsets.UTF_8));
 
             return CommandLine.ExitCode.OK;
         }
@@ -1,8 +1,8 @@
 package org.jboss.set.channel.cli;
 
+import org.jboss.set.channel.cli.resolver.ResolverContext;
 import org.jboss.set.channel.cli.utils.ConversionUtils;
 import org.wildfly.channel.Channel;
-import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.Repository;
 import org.wildfly.channel.maven.ChannelCoordinate;
 import picocli.CommandLine;
@@ -31,9 +31,12 @@ public class ExtractManifestUrlCommand extends MavenBasedCommand {
         ChannelCoordinate coordinate = ConversionUtils.toChannelCoordinate(channelCoord);
         List<Repository> repositories = ConversionUtils.toChannelRepositoryList(repositoryUrls);
 
-        Channel channel = resolveChannel(coordinate, repositories);
-        URL url = resolveManifestUrl(channel.getManifestCoordinate(), repositories);
-        System.out.println(url.toExternalForm());
+        try (ResolverContext resolverContext = newResolverContext()) {
+            Channel channel = resolverContext.resolveChannel(coordinate, repositories);
+            URL url = resolverContext.resolveUrl(channel.getManifestCoordinate(),
+                    ResolverContext.metadataRepositories(channel, repositories));
+            System.out.println(url.toExternalForm());
+        }
 
         return CommandLine.ExitCode.OK;
     }
@@ -1,5 +1,6 @@
 package org.jboss.set.channel.cli;
 
+import org.jboss.set.channel.cli.resolver.ResolverContext;
 import org.jboss.set.channel.cli.utils.ConversionUtils;
 import org.wildfly.channel.Channel;
 import org.wildfly.channel.Repository;
@@ -28,8 +29,10 @@ public class ExtractRepositoriesCommand extends MavenBasedCommand {
         ChannelCoordinate coordinate = ConversionUtils.toChannelCoordinate(channelCoord);
         List<Repository> repositories = ConversionUtils.toChannelRepositoryList(repositoryUrls);
 
-        Channel channel = resolveChannel(coordinate, repositories);
-        channel.getRepositories().stream().map(Repository::getUrl).forEach(System.out::println);
+        try (ResolverContext resolverContext = newResolverContext()) {
+            Channel channel = resolverContext.resolveChannel(coordinate, repositories);
+            channel.getRepositories().stream().map(Repository::getUrl).forEach(System.out::println);
+        }
 
         return CommandLine.ExitCode.OK;
     }
@@ -1,19 +1,36 @@
 package org.jboss.set.channel.cli;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.aether.ConfigurationProperties;
 import org.eclipse.aether.RepositoryException;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
-import org.eclipse.aether.repository.ArtifactRepository;
 import org.eclipse.aether.repository.RemoteRepository;
-import org.eclipse.aether.resolution.VersionRangeRequest;
-import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.spi.connector.transport.Transporter;
 import org.eclipse.aether.version.Version;
-import org.jboss.set.channel.cli.report.FormattingReportBuilder;
+import org.jboss.set.channel.cli.filter.VersionFilter;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.jboss.set.channel.cli.index.LocalRepositoryScanner;
+import org.jboss.set.channel.cli.index.RepositoryIndexLoader;
+import org.jboss.set.channel.cli.index.VersionIndex;
+import org.jboss.set.channel.cli.progress.ProgressReporter;
+import org.jboss.set.channel.cli.report.ReportFormat;
+import org.jboss.set.channel.cli.resolver.ConcurrentVersionRangeResolver;
+import org.jboss.set.channel.cli.resolver.PollSchedule;
+import org.jboss.set.channel.cli.resolver.QueryHistory;
+import org.jboss.set.channel.cli.resolver.QueryPlanner;
+import org.jboss.set.channel.cli.resolver.ResolvedVersions;
+import org.jboss.set.channel.cli.resolver.ResolverContext;
+import org.jboss.set.channel.cli.results.Shard;
+import org.jboss.set.channel.cli.results.UpgradeOutputs;
+import org.jboss.set.channel.cli.results.UpgradeResults;
+import org.jboss.set.channel.cli.results.UpgradeResultsFile;
+import org.jboss.set.channel.cli.transport.JdkHttpTransporterFactory;
+import org.jboss.set.channel.cli.upgrade.StandardUpgradePolicy;
+import org.jboss.set.channel.cli.upgrade.UpgradeCandidates;
+import org.jboss.set.channel.cli.utils.ConcurrencyUtils;
 import org.jboss.set.channel.cli.utils.ConversionUtils;
-import org.jboss.set.channel.cli.utils.IOUtils;
-import org.jboss.set.channel.cli.utils.VersionUtils;
 import org.wildfly.channel.Blocklist;
 import org.wildfly.channel.BlocklistCoordinate;
 import org.wildfly.channel.Channel;
@@ -23,23 +40,32 @@ import org.wildfly.channel.Repository;
 import org.wildfly.channel.Stream;
 import org.wildfly.channel.maven.ChannelCoordinate;
 import org.wildfly.channel.maven.VersionResolverFactory;
-import org.wildfly.channel.spi.MavenVersionsResolver;
 import picocli.CommandLine;
 
 import java.io.IOException;
-import java.net.URL;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 @CommandLine.Command(name = "find-upgrades",
@@ -49,9 +75,12 @@ import java.util.regex.Pattern;
                 "upgraded versions respectively.")
 public class FindUpgradesCommand extends MavenBasedCommand {
 
-    private final Path REPORT_FILE = Path.of("report.html");
-    private final Path DIFF_MANIFEST_FILE = Path.of("diff-manifest.yaml");
-    private final Path UPGRADED_MANIFEST_FILE = Path.of("upgraded-manifest.yaml");
+    private static final Duration CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofMinutes(2);
+    // Lets the resolver re-check metadata that was already checked during the session
+    private static final String UPDATE_CHECK_SESSION_STATE_PROPERTY = "aether.updateCheckManager.sessionState";
+
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
 
     @CommandLine.Parameters(index = "0", description = "Base channel coordinate (URL of GAV).",
             paramLabel = "channelCoordinate")
@@ -75,143 +104,600 @@ public class FindUpgradesCommand extends MavenBasedCommand {
             description = "Regexp to exclude versions from being added to the report.")
     private String versionsExclude;
 
+    @CommandLine.Option(names = "--include-glob", split = ",",
+            description = "Comma separated globs (`*` and `?` being wildcards), versions need to match at least one of them in order to be added to the report.",
+            paramLabel = "glob")
+    private List<String> includeGlobs;
+
+    @CommandLine.Option(names = "--exclude-glob", split = ",",
+            description = "Comma separated globs (`*` and `?` being wildcards) of versions to exclude from the report.",
+            paramLabel = "glob")
+    private List<String> excludeGlobs;
+
+    @CommandLine.Option(names = "--version-range",
+            description = "Maven version range that versions need to fall into in order to be added to the report, e.g. `[1.0,2.0)`.",
+            paramLabel = "range")
+    private String versionRange;
+
+    @CommandLine.Option(names = "--upgrade-policy", defaultValue = "LATEST_MICRO",
+            description = "Policy choosing the stream versions in the generated manifests, one of ${COMPLETION-CANDIDATES}.",
+            paramLabel = "policy")
+    private StandardUpgradePolicy upgradePolicy;
+
+    @CommandLine.Option(names = "--include-groups", split = ",",
+            description = "Comma separated `groupId` or `groupId:artifactId` patterns (`*` being a wildcard) of streams that should be checked for upgrades. All streams are checked by default.",
+            paramLabel = "pattern")
+    private List<String> includeGroups;
+
+    @CommandLine.Option(names = "--exclude-groups", split = ",",
+            description = "Comma separated `groupId` or `groupId:artifactId` patterns (`*` being a wildcard) of streams that should not be checked for upgrades.",
+            paramLabel = "pattern")
+    private List<String> excludeGroups;
+
+    @CommandLine.Option(names = "--query-history",
+            description = "File where query times of components are remembered between runs. Components that were slow to resolve are queried first.",
+            paramLabel = "file")
+    private Path queryHistoryFile;
+
+    @CommandLine.Option(names = "--index-repositories", split = ",",
+            description = "Comma separated IDs of repositories whose Maven index (`.index/nexus-maven-repository-index.gz`) is downloaded once and used to look up versions of all components, instead of requesting the metadata of each component. Can't be used in the watch mode.",
+            paramLabel = "repositoryId")
+    private List<String> indexRepositories;
+
+    @CommandLine.Option(names = "--no-local-scan",
+            description = "Query file:// repositories for the metadata of each component through the repository system, instead of scanning them once upfront.")
+    private boolean noLocalScan;
+
+    @CommandLine.Option(names = "--index-cache",
+            description = "Directory where the version lookups built from repository indexes are kept between runs. Later runs only download the incremental index chunks published since the previous run.",
+            paramLabel = "directory")
+    private Path indexCacheDirectory;
+
     @CommandLine.Option(names = "--blocklist-coordinate",
             description = "Blocklist coordinate (URL or GAV)",
             paramLabel = "blocklistCoordinate")
     private String blocklistCoordinateString;
 
-    private final ArrayList<Pair<MavenArtifact, List<String>>> upgrades = new ArrayList<>();
-    private final Set<Stream> diffStreams = new HashSet<>();
-    private final Set<Stream> upgradedStreams = new HashSet<>();
-    private final List<UpgradeDiscoveryListener> discoveryListeners = new ArrayList<>();
-    private final Map<MavenArtifact, Map<String, String>> artifactsToRepositories = new HashMap<>();
+    @CommandLine.Option(names = "--repository-timeout", defaultValue = "60",
+            description = "Timeout in seconds for a single repository to provide the versions of a component.",
+            paramLabel = "seconds")
+    private int repositoryTimeout;
+
+    @CommandLine.Option(names = "--repository-failure-threshold", defaultValue = "5",
+            description = "Number of consecutive failures after which a repository is not queried for a while.")
+    private int repositoryFailureThreshold;
+
+    @CommandLine.Option(names = "--record-snapshot",
+            description = "Record all fetched channels, manifests, blocklists and repository metadata into given snapshot archive.",
+            paramLabel = "file")
+    private Path recordSnapshot;
+
+    @CommandLine.Option(names = "--replay-snapshot",
+            description = "Replay a snapshot archive recorded by a previous run, without accessing the network.",
+            paramLabel = "file")
+    private Path replaySnapshot;
+
+    @CommandLine.Option(names = "--watch",
+            description = "After the report is generated, keep polling the repositories and log newly found upgrades. Components that release often are polled more frequently than dormant ones.")
+    private boolean watch;
+
+    @CommandLine.Option(names = "--watch-min-interval", defaultValue = "300",
+            description = "Shortest interval in seconds between two polls of a component in the watch mode.",
+            paramLabel = "seconds")
+    private int watchMinInterval;
+
+    @CommandLine.Option(names = "--watch-max-interval", defaultValue = "21600",
+            description = "Longest interval in seconds between two polls of a component in the watch mode.",
+            paramLabel = "seconds")
+    private int watchMaxInterval;
+
+    @CommandLine.Option(names = "--watch-polls", defaultValue = "0",
+            description = "Number of poll rounds after which the watch mode stops, 0 to keep polling until interrupted.",
+            paramLabel = "count")
+    private int watchPolls;
+
+    @CommandLine.Option(names = "--progress", defaultValue = "AUTO",
+            description = "Progress reporting on stderr, one of ${COMPLETION-CANDIDATES}. AUTO re-draws a status line when running in a terminal, and prints periodic summary lines otherwise.",
+            paramLabel = "mode")
+    private ProgressReporter.Mode progressMode;
+
+    @CommandLine.Option(names = "--progress-interval", defaultValue = "30",
+            description = "Interval in seconds between the progress summary lines, when not running in a terminal.",
+            paramLabel = "seconds")
+    private int progressInterval;
+
+    @CommandLine.Option(names = "--shard",
+            description = "Only check the streams of given shard, in the `index/count` format, e.g. `1/4`. Only the results file is written, the results of all shards are combined by the merge-upgrade-results command.",
+            paramLabel = "index/count")
+    private String shardString;
+
+    @CommandLine.Option(names = "--report-format", defaultValue = "STATIC",
+            description = "Format of the HTML report, one of ${COMPLETION-CANDIDATES}. INTERACTIVE embeds the data as JSON and renders the rows in the browser, which keeps very large reports small and fast to open.",
+            paramLabel = "format")
+    private ReportFormat reportFormat;
+
+    @CommandLine.Option(names = "--version-history",
+            description = "File where the versions seen by each run are recorded with the time they were first seen. The report then shows since when each upgrade is available.",
+            paramLabel = "file")
+    private Path versionHistoryFile;
+
+    @CommandLine.Option(names = "--output-dir", defaultValue = ".",
+            description = "Directory where the report and the manifest files should be written.",
+            paramLabel = "directory")
+    private Path outputDirectory;
+
+    private final List<UpgradeResults.ComponentUpgrade> upgrades = new ArrayList<>();
     private final List<RemoteRepository> repositories = new ArrayList<>();
     private final List<RemoteRepository> channelRepositories = new ArrayList<>();
     private final List<Blocklist> blocklists = new ArrayList<>();
+    // Only set with --version-history
+    private VersionHistory versionHistory;
+    // Only updated by the sink stage of the pipeline
+    private int incompleteStreams;
+    // Versions found by the previous poll of each component, only kept in the watch mode
+    private final Map<String, WatchState> watchStates = new ConcurrentHashMap<>();
+    private ProgressReporter progress;
 
     public FindUpgradesCommand() {
-        discoveryListeners.add(new UpgradeCollectingListener());
-        discoveryListeners.add(new StreamCollectingListener());
+    }
+
+    /**
+     * Creates the command as a step of given command, sharing its repository system and session.
+     */
+    FindUpgradesCommand(MavenBasedCommand parent) {
+        super(parent);
     }
 
     @Override
     public Integer call() throws Exception {
-        final ChannelCoordinate channelCoordinate = ConversionUtils.toChannelCoordinate(channelCoordinateString);
-        channelRepositories.addAll(ConversionUtils.toRepositoryList(channelRepositoriesUrls));
-        repositories.addAll(ConversionUtils.toRepositoryList(repositoryUrls));
+        try (ResolverContext resolverContext = newResolverContext()) {
+            run(resolverContext);
+        }
+        return CommandLine.ExitCode.OK;
+    }
+
+    /**
+     * Runs the command as a step of the pipeline command, resolving channel metadata through the context of the
+     * pipeline. The outputs are written as usual.
+     *
+     * @return the upgrades found
+     */
+    UpgradeResults runInPipeline(ResolverContext resolverContext) throws Exception {
+        if (watch || shardString != null) {
+            throw new IllegalArgumentException("The --watch and --shard options can't be used in a pipeline.");
+        }
+        return run(resolverContext);
+    }
+
+    private UpgradeResults run(ResolverContext resolverContext) throws Exception {
+        openSnapshot(recordSnapshot, replaySnapshot);
+        try (ProgressReporter progress = startProgress("find-upgrades", progressMode, progressInterval)) {
+            this.progress = progress;
+            return findUpgrades(resolverContext);
+        } finally {
+            closeSnapshot();
+        }
+    }
 
-        Pattern inclusionPattern = null;
-        Pattern exclusionPattern = null;
-        if (versionsInclude != null) {
-            inclusionPattern = Pattern.compile(versionsInclude);
+    private UpgradeResults findUpgrades(ResolverContext resolverContext) throws Exception {
+        if (watch && indexRepositories != null && !indexRepositories.isEmpty()) {
+            // An index is loaded only once, the polls of the indexed repositories would never see a new version.
+            throw new IllegalArgumentException("The --index-repositories option can't be used together with --watch.");
         }
-        if (versionsExclude != null) {
-            exclusionPattern = Pattern.compile(versionsExclude);
+        final ChannelCoordinate channelCoordinate = localize(ConversionUtils.toChannelCoordinate(channelCoordinateString));
+        channelRepositories.addAll(ConversionUtils.toRepositoryList(channelRepositoriesUrls));
+        repositories.addAll(ConversionUtils.toRepositoryList(repositoryUrls));
+        final Shard shard = shardString == null ? null : Shard.parse(shardString);
+
+        // Compile the version filters upfront, so that invalid patterns are reported before anything is fetched.
+        final VersionFilter.Builder versionFilterBuilder = VersionFilter.builder()
+                .include(versionsInclude == null ? null : Pattern.compile(versionsInclude))
+                .exclude(versionsExclude == null ? null : Pattern.compile(versionsExclude))
+                .includeGlobs(includeGlobs)
+                .excludeGlobs(excludeGlobs)
+                .range(versionRange);
+
+        // Let the transport give up on a stalled request at about the same time as the concurrent resolver does.
+        systemSession.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT,
+                (int) Duration.ofSeconds(repositoryTimeout).toMillis());
+        if (watch) {
+            // Metadata is re-fetched on every poll, only the JDK transport makes that a conditional request.
+            if (!spec.commandLine().getParseResult().hasMatchedOption(HTTP_TRANSPORT_OPTION)) {
+                setHttpTransport(JdkHttpTransporterFactory.JDK_TRANSPORT);
+            } else if (!JdkHttpTransporterFactory.JDK_TRANSPORT.equals(httpTransport)) {
+                logger.warnf("The %s HTTP transport doesn't make conditional requests, every poll of the watch mode " +
+                        "downloads the metadata of the polled components again.", httpTransport);
+            }
+            systemSession.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+            systemSession.setConfigProperty(UPDATE_CHECK_SESSION_STATE_PROPERTY, "bypass");
+            systemSession.setConfigProperty(JdkHttpTransporterFactory.CONDITIONAL_REQUESTS_PROPERTY, true);
         }
 
-        try (VersionResolverFactory resolverFactory = new VersionResolverFactory(system, systemSession)) {
-            final List<Channel> channels = resolverFactory.resolveChannels(List.of(channelCoordinate), channelRepositories);
-            loadBlocklist(resolverFactory, channels);
-            final ChannelSession channelSession = new ChannelSession(channels, resolverFactory);
-            Set<Stream> channelStreams = resolveStreams(channels, resolverFactory);
-            upgradedStreams.addAll(channelStreams);
-
-            for (Stream stream : channelStreams) {
-                MavenArtifact resolvedArtifact = channelSession.resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null);
-                VersionRangeResult versionRangeResult = resolveVersionRange(resolvedArtifact);
-                final List<Version> availableVersions = versionRangeResult.getVersions().stream()
-                        .sorted(Comparator.reverseOrder()).toList();
-                final List<String> possibleUpgrades = findPossibleUpgrades(stream, availableVersions, inclusionPattern, exclusionPattern, blocklists);
-
-                for (Version version : availableVersions) {
-                    ArtifactRepository repository = versionRangeResult.getRepository(version);
-                    artifactsToRepositories.compute(resolvedArtifact, (a, current) -> {
-                        if (current == null) {
-                            current = new HashMap<>();
-                        }
-                        current.put(version.toString(), repository.getId());
-                        return current;
-                    });
-                }
+        try (ConcurrentVersionRangeResolver versionRangeResolver = new ConcurrentVersionRangeResolver(system,
+                systemSession, repositories, Duration.ofSeconds(repositoryTimeout), repositoryFailureThreshold,
+                CIRCUIT_BREAKER_OPEN_DURATION)) {
+            loadRepositoryIndexes(versionRangeResolver);
+            final VersionResolverFactory resolverFactory = resolverContext.getResolverFactory();
+            final List<Channel> channels = localize(resolverFactory.resolveChannels(List.of(channelCoordinate), channelRepositories));
+            loadBlocklist(resolverContext, channels);
+            final VersionFilter versionFilter = versionFilterBuilder.blocklists(blocklists).build();
+            List<Stream> channelStreams = resolverContext.resolveStreams(channels).stream()
+                    .filter(s -> shard == null || shard.contains(s.getGroupId(), s.getArtifactId()))
+                    .toList();
+
+            final QueryHistory queryHistory = queryHistoryFile == null ? QueryHistory.empty()
+                    : QueryHistory.load(queryHistoryFile);
+            final List<Stream> plannedStreams = new QueryPlanner(includeGroups, excludeGroups, queryHistory)
+                    .plan(channelStreams);
+            logger.debugf("Querying %d components out of %d channel streams", plannedStreams.size(),
+                    channelStreams.size());
+            progress.setTotal(plannedStreams.size());
+            final BlockingQueue<ChannelSession> channelSessions = newChannelSessions(channels, resolverFactory,
+                    resolverThreads(plannedStreams));
+            versionHistory = versionHistoryFile == null ? null : VersionHistory.load(versionHistoryFile);
+
+            runPipeline(plannedStreams,
+                    stream -> resolveStream(stream, channelSessions, versionRangeResolver, queryHistory),
+                    resolved -> classifyStream(resolved, versionFilter));
+            queryHistory.save();
+            if (versionHistory != null) {
+                versionHistory.save();
+            }
+
+            if (incompleteStreams > 0) {
+                logger.warnf("Some repositories failed to provide versions for %d streams, the results may be incomplete.",
+                        incompleteStreams);
+            }
+
+            final UpgradeResults results = new UpgradeResults(ConversionUtils.toChannelRepositories(repositories),
+                    channelStreams, upgrades, shard);
+            // The results are persisted, so that the report can be rendered again without querying the repositories.
+            UpgradeResultsFile.write(outputDirectory.resolve(UpgradeResultsFile.fileName(shard)), results);
+            if (shard == null) {
+                // With shards, the outputs are produced by merging the results of all shards.
+                UpgradeOutputs.write(results, outputDirectory, reportFormat, versionHistory);
+            }
 
-                if (!possibleUpgrades.isEmpty()) {
-                    //noinspection UnnecessaryLocalVariable
-                    MavenArtifact a = resolvedArtifact;
-                    logger.infof("Found upgrades: %s:%s:%s -> %s", a.getGroupId(), a.getArtifactId(), a.getVersion(),
-                            String.join(", ", possibleUpgrades));
+            if (watch) {
+                watch(plannedStreams,
+                        stream -> resolveStream(stream, channelSessions, versionRangeResolver, queryHistory),
+                        resolved -> classifyStream(resolved, versionFilter));
+            }
+            return results;
+        }
+    }
 
-                    for (UpgradeDiscoveryListener listener : discoveryListeners) {
-                        listener.upgrade(resolvedArtifact, possibleUpgrades);
+    /**
+     * Keeps polling the repositories for new versions of given streams, logging only newly found upgrade candidates.
+     * Each component is polled at its own interval, see {@link PollSchedule}. Runs until interrupted, or until the
+     * number of poll rounds given by --watch-polls is reached.
+     */
+    private void watch(List<Stream> streams, Function<Stream, ResolvedComponent> resolveStage,
+                       Function<ResolvedComponent, ResolvedStream> classifyStage) throws Exception {
+        final Map<String, Stream> streamsByKey = new HashMap<>();
+        final PollSchedule schedule = new PollSchedule(Duration.ofSeconds(watchMinInterval),
+                Duration.ofSeconds(watchMaxInterval));
+        final long start = System.currentTimeMillis();
+        for (Stream stream : streams) {
+            String key = gaKey(stream.getGroupId(), stream.getArtifactId());
+            streamsByKey.put(key, stream);
+            schedule.add(key, start);
+        }
+        logger.infof("Watching %d components for new versions", streams.size());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(resolverThreads(streams));
+        try {
+            for (int round = 0; !Thread.currentThread().isInterrupted() && (watchPolls == 0 || round < watchPolls);
+                 round++) {
+                long wait = schedule.nextPollMillis() - System.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+                List<String> due = schedule.takeDue(System.currentTimeMillis());
+                List<Future<ResolvedStream>> futures = new ArrayList<>(due.size());
+                for (String key : due) {
+                    Stream stream = streamsByKey.get(key);
+                    futures.add(executor.submit(() -> classifyStage.apply(resolveStage.apply(stream))));
+                }
+                for (int i = 0; i < due.size(); i++) {
+                    boolean changed = false;
+                    try {
+                        changed = reportNewUpgrades(ConcurrencyUtils.getResult(futures.get(i)));
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        logger.warnf("Failed to poll %s: %s", due.get(i), ConcurrencyUtils.unwrap(e).getMessage());
                     }
+                    schedule.record(due.get(i), changed, System.currentTimeMillis());
+                }
+                if (versionHistory != null) {
+                    versionHistory.save();
                 }
+                logger.debugf("Polled %d components, next poll in %d s", due.size(),
+                        TimeUnit.MILLISECONDS.toSeconds(schedule.nextPollMillis() - System.currentTimeMillis()));
             }
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        if (upgrades.isEmpty()) {
-            // Don't write the report file if the report is empty.
-            return CommandLine.ExitCode.OK;
+    /**
+     * Logs the upgrade candidates that were not known yet.
+     *
+     * @return whether new versions of the component appeared since the previous poll
+     */
+    private boolean reportNewUpgrades(ResolvedStream result) {
+        final MavenArtifact a = result.artifact();
+        final String key = gaKey(a.getGroupId(), a.getArtifactId());
+        final WatchState previous = watchStates.get(key);
+        final Set<String> known = previous == null ? Set.of() : previous.reportedVersions();
+        final List<String> newUpgrades = result.possibleUpgrades().stream()
+                .filter(v -> !known.contains(v))
+                .toList();
+        if (!newUpgrades.isEmpty()) {
+            logger.infof("New upgrades: %s:%s:%s -> %s", a.getGroupId(), a.getArtifactId(), a.getVersion(),
+                    String.join(", ", newUpgrades));
         }
+        watchStates.put(key, WatchState.of(result));
+        return previous == null || previous.availableVersions() != result.availableVersions()
+                || !newUpgrades.isEmpty();
+    }
 
-        writeReportFile();
+    /**
+     * Runs the streams through a staged pipeline: network bound resolution, CPU bound classification, and a single
+     * threaded sink collecting the results. The stages overlap, so the classification and collection of finished
+     * streams happens while other streams are still waiting for the repositories. The number of streams in the
+     * pipeline is bounded, so that the results don't pile up when one of the stages is slower than the others.
+     * <p>
+     * Results are collected in completion order.
+     */
+    private void runPipeline(List<Stream> plannedStreams, Function<Stream, ResolvedComponent> resolveStage,
+                             Function<ResolvedComponent, ResolvedStream> classifyStage) throws Exception {
+        // The concurrency limiters of the transport keep the number of in-flight requests at what each repository
+        // can handle, the resolver threads only need to cover the maximum.
+        final int resolverThreads = resolverThreads(plannedStreams);
+        final int classifierThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                plannedStreams.size()));
+        final int capacity = resolverThreads * 2;
+        final Semaphore permits = new Semaphore(capacity);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final ExecutorService resolvers = ConcurrencyUtils.newBoundedExecutor("find-upgrades-resolver",
+                resolverThreads, capacity);
+        final ExecutorService classifiers = ConcurrencyUtils.newBoundedExecutor("find-upgrades-classifier",
+                classifierThreads, capacity);
+        final ExecutorService sink = ConcurrencyUtils.newBoundedExecutor("find-upgrades-sink", 1, capacity);
+        try {
+            for (Stream stream : plannedStreams) {
+                permits.acquire();
+                if (failure.get() != null) {
+                    permits.release();
+                    break;
+                }
+                CompletableFuture.supplyAsync(() -> resolveStage.apply(stream), resolvers)
+                        .thenApplyAsync(classifyStage, classifiers)
+                        .thenAcceptAsync(this::collect, sink)
+                        .whenComplete((result, throwable) -> {
+                            if (throwable != null) {
+                                failure.compareAndSet(null, ConcurrencyUtils.unwrap(throwable));
+                            }
+                            permits.release();
+                        });
+            }
+            // Wait for the streams still in the pipeline.
+            permits.acquire(capacity);
+        } finally {
+            resolvers.shutdownNow();
+            classifiers.shutdownNow();
+            sink.shutdownNow();
+        }
 
-        // Write manifest file that contains only upgraded components
-        IOUtils.writeManifestFile(DIFF_MANIFEST_FILE, diffStreams);
-        // Write manifest file that contains both original and upgraded components
-        IOUtils.writeManifestFile(UPGRADED_MANIFEST_FILE, upgradedStreams);
+        final Throwable throwable = failure.get();
+        if (throwable instanceof Exception e) {
+            throw e;
+        } else if (throwable instanceof Error e) {
+            throw e;
+        } else if (throwable != null) {
+            throw new RuntimeException(throwable);
+        }
+    }
 
-        return CommandLine.ExitCode.OK;
+    private int resolverThreads(List<Stream> streams) {
+        return Math.max(1, Math.min(maxConcurrentRequests, streams.size()));
     }
 
-    private VersionRangeResult resolveVersionRange(MavenArtifact artifact) throws RepositoryException {
-        VersionRangeRequest rangeRequest = new VersionRangeRequest();
-        // Set version range from current version excluded:
-        Artifact requestArtifact = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(),
-                artifact.getClassifier(), artifact.getExtension(), "(" + artifact.getVersion() + ",)");
-        rangeRequest.setArtifact(requestArtifact);
-        rangeRequest.setRepositories(repositories);
+    /**
+     * Nothing guarantees that a {@link ChannelSession} supports concurrent calls, so each resolver thread takes a
+     * session of its own from the returned queue. The sessions are created upfront on the calling thread, and only
+     * share the repository system, which is thread-safe, and the repository session, which is no longer modified at
+     * this point.
+     */
+    private static BlockingQueue<ChannelSession> newChannelSessions(List<Channel> channels,
+                                                                     VersionResolverFactory resolverFactory,
+                                                                     int count) {
+        final BlockingQueue<ChannelSession> channelSessions = new LinkedBlockingQueue<>();
+        for (int i = 0; i < count; i++) {
+            channelSessions.add(new ChannelSession(channels, resolverFactory));
+        }
+        return channelSessions;
+    }
 
-        VersionRangeResult rangeResult = system.resolveVersionRange(systemSession, rangeRequest);
+    /**
+     * Resolver stage: resolves the channel version of the stream and all versions available in the repositories.
+     */
+    private ResolvedComponent resolveStream(Stream stream, BlockingQueue<ChannelSession> channelSessions,
+                                            ConcurrentVersionRangeResolver versionRangeResolver,
+                                            QueryHistory queryHistory) {
+        try {
+            long start = System.nanoTime();
+            final MavenArtifact resolvedArtifact;
+            final ChannelSession channelSession = channelSessions.take();
+            try {
+                resolvedArtifact = channelSession.resolveMavenArtifact(stream.getGroupId(), stream.getArtifactId(), "pom", null, null);
+            } finally {
+                channelSessions.add(channelSession);
+            }
+            ResolvedVersions resolvedVersions = resolveVersionRange(versionRangeResolver, resolvedArtifact);
+            queryHistory.record(stream.getGroupId(), stream.getArtifactId(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new ResolvedComponent(stream, resolvedArtifact, resolvedVersions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (RepositoryException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Classifier stage: selects the versions to report and the manifest version.
+     */
+    private ResolvedStream classifyStream(ResolvedComponent resolved, VersionFilter versionFilter) {
+        final ResolvedVersions resolvedVersions = resolved.versions();
+        if (versionHistory != null) {
+            for (Version version : resolvedVersions.getVersions()) {
+                versionHistory.record(resolved.stream().getGroupId(), resolved.stream().getArtifactId(),
+                        version.toString());
+            }
+        }
+        UpgradeCandidates candidates = classifyUpgrades(resolved.stream(), resolved.artifact().getVersion(),
+                resolvedVersions.getVersions(), versionFilter);
+        List<String> possibleUpgrades = List.copyOf(candidates.getReportedVersions());
+        String manifestVersion = upgradePolicy.select(candidates).orElse(null);
+        // Only repositories of the reported versions are kept, the full version list is dropped here.
+        List<String> upgradeRepositoryIds = new ArrayList<>(possibleUpgrades.size());
+        if (!possibleUpgrades.isEmpty()) {
+            Map<String, String> repositoryIds = new HashMap<>();
+            Set<String> reported = new HashSet<>(possibleUpgrades);
+            for (Version version : resolvedVersions.getVersions()) {
+                String versionString = version.toString();
+                if (reported.contains(versionString)) {
+                    repositoryIds.put(versionString, resolvedVersions.getRepositoryId(version));
+                }
+            }
+            possibleUpgrades.forEach(v -> upgradeRepositoryIds.add(repositoryIds.get(v)));
+        }
+        return new ResolvedStream(resolved.stream(), resolved.artifact(), possibleUpgrades, manifestVersion,
+                upgradeRepositoryIds, resolvedVersions.getUnavailableRepositories(),
+                resolvedVersions.getVersions().size());
+    }
 
-        for (Exception e : rangeResult.getExceptions()) {
-            logger.debugf("Version resolution exception: %s", e.getMessage());
+    /**
+     * Sink stage, always runs on a single thread.
+     */
+    private void collect(ResolvedStream result) {
+        progress.completed();
+        final Stream stream = result.stream();
+        final MavenArtifact resolvedArtifact = result.artifact();
+        if (watch) {
+            watchStates.put(gaKey(stream.getGroupId(), stream.getArtifactId()), WatchState.of(result));
+        }
+        if (!result.unavailableRepositories().isEmpty()) {
+            incompleteStreams++;
+            logger.debugf("Repositories %s did not provide versions of %s:%s",
+                    result.unavailableRepositories(), stream.getGroupId(), stream.getArtifactId());
         }
+        final List<String> possibleUpgrades = result.possibleUpgrades();
 
-        return rangeResult;
+        if (!possibleUpgrades.isEmpty()) {
+            //noinspection UnnecessaryLocalVariable
+            MavenArtifact a = resolvedArtifact;
+            logger.infof("Found upgrades: %s:%s:%s -> %s", a.getGroupId(), a.getArtifactId(), a.getVersion(),
+                    String.join(", ", possibleUpgrades));
+
+            upgrades.add(new UpgradeResults.ComponentUpgrade(a.getGroupId(), a.getArtifactId(), a.getVersion(),
+                    possibleUpgrades, result.upgradeRepositoryIds(), result.manifestVersion()));
+        }
     }
 
-    private void writeReportFile() throws IOException {
-        List<Repository> discoveryRepositories = ConversionUtils.toChannelRepositories(repositories);
-        String reportHtml = new FormattingReportBuilder()
-                .withRepositories(discoveryRepositories)
-                .withUpgrades(upgrades)
-                .withArtifactToRepositoryMap(artifactsToRepositories)
-                .build();
+    private static String gaKey(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
 
-        logger.infof("Writing report file into %s", REPORT_FILE.toString());
-        Files.write(REPORT_FILE, reportHtml.getBytes(), StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
+    private static ResolvedVersions resolveVersionRange(ConcurrentVersionRangeResolver resolver, MavenArtifact artifact)
+            throws RepositoryException, InterruptedException {
+        // Set version range from current version excluded:
+        Artifact requestArtifact = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(),
+                artifact.getClassifier(), artifact.getExtension(), "(" + artifact.getVersion() + ",)");
+        return resolver.resolveVersionRange(requestArtifact);
     }
 
-    private void loadBlocklist(VersionResolverFactory resolverFactory, List<Channel> channels) {
-        try (MavenVersionsResolver resolver =
-                     resolverFactory.create(ConversionUtils.toChannelRepositories(channelRepositories))) {
-            if (!StringUtils.isBlank(blocklistCoordinateString)) {
-                // Blocklist coordinate was given
-                final BlocklistCoordinate coordinate = ConversionUtils.toBlocklistCoordinate(blocklistCoordinateString);
-                blocklists.addAll(resolveBlocklists(resolver, coordinate));
-            } else {
-                // No blocklist specified, reuse blocklists from channels
-                List<BlocklistCoordinate> blocklistCoordinates = channels.stream().map(Channel::getBlocklistCoordinate)
-                        .toList();
-                for (BlocklistCoordinate coordinate: blocklistCoordinates) {
-                    blocklists.addAll(resolveBlocklists(resolver, coordinate));
+    private void loadRepositoryIndexes(ConcurrentVersionRangeResolver versionRangeResolver) throws Exception {
+        if (snapshot != null) {
+            if (indexRepositories != null && !indexRepositories.isEmpty()) {
+                logger.warn("Repository indexes are not used while a snapshot is recorded or replayed.");
+            }
+            return;
+        }
+        if (!watch && !noLocalScan) {
+            // Local repositories are scanned once, which is much cheaper than going through the repository system
+            // for the metadata of each component. The watch mode needs to see their changes, so they are left alone.
+            for (RemoteRepository repository : repositories) {
+                final Path repositoryDir = localRepositoryDirectory(repository);
+                if (repositoryDir != null && (indexRepositories == null || !indexRepositories.contains(repository.getId()))) {
+                    final long start = System.nanoTime();
+                    final VersionIndex index = LocalRepositoryScanner.indexRepository(repositoryDir);
+                    logger.infof("Scanned local repository %s with %d components in %d ms", repository.getId(),
+                            index.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    versionRangeResolver.useIndex(repository.getId(), index);
                 }
             }
         }
+        if (indexRepositories == null) {
+            return;
+        }
+        for (String repositoryId : indexRepositories) {
+            final RemoteRepository repository = repositories.stream()
+                    .filter(r -> r.getId().equals(repositoryId))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown index repository: " + repositoryId));
+            final Path cacheFile = indexCacheDirectory == null ? null
+                    : indexCacheDirectory.resolve(RepositoryIndexLoader.cacheFileName(repository.getUrl()));
+            try (Transporter transporter = transporterProvider.newTransporter(systemSession, repository)) {
+                final VersionIndex index = RepositoryIndexLoader.load(transporter, cacheFile);
+                if (index == null) {
+                    logger.warnf("Repository %s doesn't publish a Maven index, its metadata will be queried instead.",
+                            repositoryId);
+                } else {
+                    logger.infof("Using the Maven index of repository %s with %d components", repositoryId,
+                            index.size());
+                    versionRangeResolver.useIndex(repositoryId, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return directory of a repository with a file URL, or null if the repository is not a local directory
+     */
+    private static Path localRepositoryDirectory(RemoteRepository repository) {
+        if (!"file".equalsIgnoreCase(repository.getProtocol())) {
+            return null;
+        }
+        try {
+            final Path path = Path.of(URI.create(repository.getUrl()));
+            return Files.isDirectory(path) ? path : null;
+        } catch (IllegalArgumentException e) {
+            logger.debugf("Repository URL %s is not a local path: %s", repository.getUrl(), e.getMessage());
+            return null;
+        }
     }
 
-    private List<Blocklist> resolveBlocklists(MavenVersionsResolver resolver, BlocklistCoordinate coordinate) {
-        List<URL> urls = resolver.resolveChannelMetadata(List.of(coordinate));
-        return urls.stream().map(Blocklist::from).toList();
+    private void loadBlocklist(ResolverContext resolverContext, List<Channel> channels) throws IOException {
+        final List<Repository> repositories = ConversionUtils.toChannelRepositories(channelRepositories);
+        if (!StringUtils.isBlank(blocklistCoordinateString)) {
+            // Blocklist coordinate was given
+            final BlocklistCoordinate coordinate = localize(ConversionUtils.toBlocklistCoordinate(blocklistCoordinateString));
+            blocklists.add(resolverContext.resolveBlocklist(coordinate, repositories));
+        } else {
+            // No blocklist specified, reuse blocklists from channels
+            List<BlocklistCoordinate> blocklistCoordinates = channels.stream().map(Channel::getBlocklistCoordinate)
+                    .filter(Objects::nonNull)
+                    .toList();
+            for (BlocklistCoordinate coordinate: blocklistCoordinates) {
+                blocklists.add(resolverContext.resolveBlocklist(coordinate, repositories));
+            }
+        }
     }
 
     /**
@@ -222,92 +708,49 @@ public class FindUpgradesCommand extends MavenBasedCommand {
      */
     static List<String> findPossibleUpgrades(Stream stream, List<? extends Version> versions, Pattern include,
                                              Pattern exclude, List<Blocklist> blocklists) {
-        final Set<String> blockedVersions = new HashSet<>();
-        if (blocklists != null) {
-            for (Blocklist blocklist : blocklists) {
-                blockedVersions.addAll(blocklist.getVersionsFor(stream.getGroupId(), stream.getArtifactId()));
-            }
-        }
-
-        // Apply inclusions, exclusions and blocklist, only work with the resulting subset
-        versions = versions.stream()
-                .filter(v -> include == null || include.matcher(v.toString()).find())
-                .filter(v -> exclude == null || !exclude.matcher(v.toString()).find())
-                .filter(v -> !blockedVersions.contains(v.toString()))
-                .toList();
-
-        if (versions.isEmpty()) {
-            return Collections.emptyList();
-        }
-        ArrayList<String> resultVersions = new ArrayList<>();
-
-        // Always add the first (highest) version from given list.
-        String highestVersion = versions.get(0).toString();
-        resultVersions.add(highestVersion);
-        String[] lastSegments = VersionUtils.parseVersion(highestVersion);
-        String[] lastNumericalSegments = VersionUtils.numericalSegments(lastSegments);
-        String lastQualifier = VersionUtils.firstQualifierSegment(lastSegments);
-        int lastIndex = lastNumericalSegments.length - 1;
-
-        for (Version version : versions) {
-            String[] segments = VersionUtils.parseVersion(version.toString());
-            String[] numericalSegments = VersionUtils.numericalSegments(segments);
-            String qualifier = VersionUtils.firstQualifierSegment(segments);
-
-            boolean differs = false;
-            for (int i = 0; i < lastIndex; i++) {
-                if (i >= numericalSegments.length || !numericalSegments[i].equals(lastNumericalSegments[i])) {
-                    differs = true;
-                    break;
-                }
-            }
-
-            if (!qualifier.equals(lastQualifier) || segments.length != lastSegments.length) {
-                differs = true;
-            }
+        VersionFilter filter = VersionFilter.builder()
+                .include(include)
+                .exclude(exclude)
+                .blocklists(blocklists)
+                .build();
+        return findPossibleUpgrades(stream, versions, filter);
+    }
 
-            if (differs) {
-                resultVersions.add(version.toString());
-                lastSegments = segments;
-                lastNumericalSegments = numericalSegments;
-                lastQualifier = qualifier;
-                lastIndex = numericalSegments.length - 1;
-            }
-        }
+    static List<String> findPossibleUpgrades(Stream stream, List<? extends Version> versions, VersionFilter filter) {
+        return classifyUpgrades(stream, stream.getVersion(), versions, filter).getReportedVersions();
+    }
 
-        Collections.reverse(resultVersions);
-        return resultVersions;
+    /**
+     * Classifies the available versions of a stream against its current version in a single pass.
+     *
+     * @param versions List of available versions, has to be sorted from highest to lowest
+     */
+    static UpgradeCandidates classifyUpgrades(Stream stream, String baseVersion, List<? extends Version> versions,
+                                              VersionFilter filter) {
+        // Each version is stringified once, lazily during the classification pass
+        Iterable<String> versionStrings = () -> versions.stream().map(Version::toString).iterator();
+        return UpgradeCandidates.classify(baseVersion, versionStrings,
+                filter.forComponent(stream.getGroupId(), stream.getArtifactId()));
     }
 
-    private interface UpgradeDiscoveryListener {
-        void upgrade(MavenArtifact artifact, List<String> possibleUpgrades);
+    private record ResolvedComponent(Stream stream, MavenArtifact artifact, ResolvedVersions versions) {
     }
 
-    private class UpgradeCollectingListener implements UpgradeDiscoveryListener {
-        @Override
-        public void upgrade(MavenArtifact artifact, List<String> possibleUpgrades) {
-            upgrades.add(Pair.of(artifact, possibleUpgrades));
-        }
+    /**
+     * @param possibleUpgrades versions to be reported
+     * @param manifestVersion version chosen by the upgrade policy for the generated manifests, or null
+     */
+    private record ResolvedStream(Stream stream, MavenArtifact artifact, List<String> possibleUpgrades,
+                                  String manifestVersion, List<String> upgradeRepositoryIds,
+                                  Set<String> unavailableRepositories, int availableVersions) {
     }
 
-    private class StreamCollectingListener implements UpgradeDiscoveryListener {
-        @Override
-        public void upgrade(MavenArtifact artifact, List<String> possibleUpgrades) {
-            Optional<String> latestMicro = VersionUtils.findMicroUpgrade(artifact.getVersion(), possibleUpgrades);
-            if (latestMicro.isPresent()) {
-                // Add to the collection containing only upgraded streams
-                diffStreams.add(new Stream(artifact.getGroupId(), artifact.getArtifactId(), latestMicro.get()));
-
-                // Update the stream in the collection containing all streams
-                Optional<Stream> originalStream = upgradedStreams.stream()
-                        .filter(s -> s.getGroupId().equals(artifact.getGroupId())
-                                && s.getArtifactId().equals(artifact.getArtifactId()))
-                        .findAny();
-                if (originalStream.isPresent()) {
-                    upgradedStreams.remove(originalStream.get());
-                    upgradedStreams.add(new Stream(artifact.getGroupId(), artifact.getArtifactId(), latestMicro.get()));
-                }
-            }
+    /**
+     * @param availableVersions number of versions newer than the channel version, regardless of the filters
+     */
+    private record WatchState(Set<String> reportedVersions, int availableVersions) {
+        static WatchState of(ResolvedStream result) {
+            return new WatchState(Set.copyOf(result.possibleUpgrades()), result.availableVersions());
         }
     }
 
@@ -0,0 +1,65 @@
+package org.jboss.set.channel.cli;
+
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.jboss.set.channel.cli.resolver.ResolverContext;
+import org.jboss.set.channel.cli.utils.ConversionUtils;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.maven.ChannelCoordinate;
+import picocli.CommandLine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@CommandLine.Command(name = "inspect-channel",
+        description = "Resolve given channel and print its repositories, manifest URL and blocklist URL on stdout, " +
+                "as a YAML document. Manifest and blocklist given as Maven GAVs are resolved to a local maven cache " +
+                "and the URLs point there.")
+public class InspectChannelCommand extends MavenBasedCommand {
+
+    @CommandLine.Parameters(index = "0", description = "Channel coordinate (URL or GAV)",
+            paramLabel = "channelCoordinate")
+    private String channelCoord;
+
+    @CommandLine.Option(names = "--repositories", split = ",",
+            description = "Comma separated repositories URLs where the channel files should be looked for, if they need to be resolved via maven.",
+            paramLabel = "URL")
+    private List<String> repositoryUrls;
+
+    @Override
+    public Integer call() throws Exception {
+        ChannelCoordinate coordinate = ConversionUtils.toChannelCoordinate(channelCoord);
+        List<Repository> repositories = ConversionUtils.toChannelRepositoryList(repositoryUrls);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try (ResolverContext resolverContext = newResolverContext()) {
+            Channel channel = resolverContext.resolveChannel(coordinate, repositories);
+
+            List<Repository> metadataRepositories = ResolverContext.metadataRepositories(channel, repositories);
+
+            result.put("name", channel.getName());
+            List<Map<String, String>> channelRepositories = new ArrayList<>();
+            for (Repository repository : channel.getRepositories()) {
+                Map<String, String> entry = new LinkedHashMap<>();
+                entry.put("id", repository.getId());
+                entry.put("url", repository.getUrl());
+                channelRepositories.add(entry);
+            }
+            result.put("repositories", channelRepositories);
+            if (channel.getManifestCoordinate() != null) {
+                result.put("manifest-url", resolverContext.resolveUrl(channel.getManifestCoordinate(),
+                        metadataRepositories).toExternalForm());
+            }
+            if (channel.getBlocklistCoordinate() != null) {
+                result.put("blocklist-url", resolverContext.resolveUrl(channel.getBlocklistCoordinate(),
+                        metadataRepositories).toExternalForm());
+            }
+        }
+        System.out.print(new YAMLMapper().writeValueAsString(result));
+
+        return CommandLine.ExitCode.OK;
+    }
+}
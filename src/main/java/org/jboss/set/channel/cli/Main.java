@@ -8,11 +8,15 @@ public class Main {
         CommandLine commandLine = new CommandLine(new MainCommand());
         commandLine.addSubcommand(new CompareChannelsCommand());
         commandLine.addSubcommand(new FindUpgradesCommand());
+        commandLine.addSubcommand(new MergeUpgradeResultsCommand());
+        commandLine.addSubcommand(new RenderReportCommand());
         commandLine.addSubcommand(new CreateManifestFromRepoCommand());
         commandLine.addSubcommand(new CreateChannelCommand());
         commandLine.addSubcommand(new MergeManifestsCommand());
+        commandLine.addSubcommand(new PipelineCommand());
         commandLine.addSubcommand(new ExtractRepositoriesCommand());
         commandLine.addSubcommand(new ExtractManifestUrlCommand());
+        commandLine.addSubcommand(new InspectChannelCommand());
         commandLine.addSubcommand(new GenerateDependencyGroupsCommand());
         commandLine.execute(args);
     }
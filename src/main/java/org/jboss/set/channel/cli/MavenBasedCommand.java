@@ -8,97 +8,222 @@ import org.eclipse.aether.impl.DefaultServiceLocator;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.spi.connector.transport.TransporterProvider;
 import org.eclipse.aether.transport.file.FileTransporterFactory;
 import org.eclipse.aether.transport.http.HttpTransporterFactory;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
 import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.progress.ProgressReporter;
+import org.jboss.set.channel.cli.resolver.ResolverContext;
+import org.jboss.set.channel.cli.snapshot.MetadataSnapshot;
+import org.jboss.set.channel.cli.transport.ConcurrencyLimitingTransporterFactory;
+import org.jboss.set.channel.cli.transport.JdkHttpTransporterFactory;
+import org.wildfly.channel.BlocklistCoordinate;
 import org.wildfly.channel.Channel;
-import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestCoordinate;
-import org.wildfly.channel.ChannelManifestMapper;
-import org.wildfly.channel.ChannelMapper;
-import org.wildfly.channel.Repository;
-import org.wildfly.channel.Stream;
 import org.wildfly.channel.maven.ChannelCoordinate;
-import org.wildfly.channel.maven.VersionResolverFactory;
-import org.wildfly.channel.spi.MavenVersionsResolver;
+import picocli.CommandLine;
 
 import java.io.IOException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.stream.Collectors;
 
 abstract class MavenBasedCommand implements Callable<Integer> {
 
     protected static final Logger logger = Logger.getLogger(MavenBasedCommand.class);
 
+    protected static final String HTTP_TRANSPORT_OPTION = "--http-transport";
+    private static final String MAX_CONCURRENT_REQUESTS_OPTION = "--max-concurrent-requests";
 
     protected final RepositorySystem system;
     protected final DefaultRepositorySystemSession systemSession;
+    // Gives access to files of remote repositories that are not artifacts or metadata, e.g. repository indexes
+    protected final TransporterProvider transporterProvider;
+    protected MetadataSnapshot snapshot;
+    protected String httpTransport = JdkHttpTransporterFactory.APACHE_TRANSPORT;
+    protected int maxConcurrentRequests = ConcurrencyLimitingTransporterFactory.DEFAULT_MAX_CONCURRENT_REQUESTS;
 
+    @SuppressWarnings("deprecation")
     public MavenBasedCommand() {
         try {
-            system = newRepositorySystem();
+            final DefaultServiceLocator locator = newServiceLocator();
+            system = locator.getService(RepositorySystem.class);
+            transporterProvider = locator.getService(TransporterProvider.class);
             systemSession = newRepositorySystemSession(system);
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize command", e);
         }
     }
 
-    protected static Set<Stream> resolveStreams(List<Channel> channels, VersionResolverFactory resolverFactory) {
-        List<ChannelManifestCoordinate> manifestCoordinates = channels.stream()
-                .map(Channel::getManifestCoordinate).toList();
-        List<Repository> repositories = channels.stream()
-                .flatMap(channel -> channel.getRepositories().stream()).toList();
+    /**
+     * Creates a command sharing the repository system and session of given command, for running it as a part of the
+     * other command.
+     */
+    protected MavenBasedCommand(MavenBasedCommand parent) {
+        system = parent.system;
+        systemSession = parent.systemSession;
+        transporterProvider = parent.transporterProvider;
+        httpTransport = parent.httpTransport;
+        maxConcurrentRequests = parent.maxConcurrentRequests;
+    }
 
-        try (MavenVersionsResolver resolver = resolverFactory.create(repositories)) {
-            List<URL> resolvedBaseManifests = resolver.resolveChannelMetadata(manifestCoordinates);
-            List<ChannelManifest> baseManifests = resolvedBaseManifests.stream().map(ChannelManifestMapper::from).toList();
-            return baseManifests.stream().flatMap(manifest -> manifest.getStreams().stream()).collect(Collectors.toSet());
+    /**
+     * Applies the transport options of given command to this command and to the shared session, unless they were
+     * given in the arguments of this command. Parsing arguments of a command created by
+     * {@link #MavenBasedCommand(MavenBasedCommand)} applies the option defaults, which overwrites the options of the
+     * parent in the shared session, so they have to be restored after parsing.
+     *
+     * @param parseResult result of parsing the arguments of this command
+     */
+    protected void applySessionOptions(MavenBasedCommand parent, CommandLine.ParseResult parseResult) {
+        if (!parseResult.hasMatchedOption(HTTP_TRANSPORT_OPTION)) {
+            setHttpTransport(parent.httpTransport);
+        }
+        if (!parseResult.hasMatchedOption(MAX_CONCURRENT_REQUESTS_OPTION)) {
+            setMaxConcurrentRequests(parent.maxConcurrentRequests);
         }
     }
 
-    protected ChannelManifest resolveManifest(ChannelManifestCoordinate coordinate, List<Repository> repositories) {
-        return ChannelManifestMapper.from(resolveManifestUrl(coordinate, repositories));
+    @CommandLine.Option(names = HTTP_TRANSPORT_OPTION, defaultValue = JdkHttpTransporterFactory.APACHE_TRANSPORT,
+            description = "HTTP transport to use for Maven repositories: \"apache\" (HTTP/1.1) or \"jdk\" (JDK HTTP " +
+                    "client, HTTP/2 with connection pooling).",
+            paramLabel = "transport")
+    void setHttpTransport(String transport) {
+        if (!JdkHttpTransporterFactory.APACHE_TRANSPORT.equals(transport)
+                && !JdkHttpTransporterFactory.JDK_TRANSPORT.equals(transport)) {
+            throw new IllegalArgumentException("Unknown HTTP transport: " + transport);
+        }
+        this.httpTransport = transport;
+        systemSession.setConfigProperty(JdkHttpTransporterFactory.TRANSPORT_PROPERTY, transport);
     }
 
-    protected URL resolveManifestUrl(ChannelManifestCoordinate coordinate, List<Repository> repositories) {
-        try (VersionResolverFactory resolverFactory = new VersionResolverFactory(system, systemSession)) {
-            try (MavenVersionsResolver resolver = resolverFactory.create(repositories)) {
-                List<URL> urls = resolver.resolveChannelMetadata(List.of(coordinate));
-                return urls.get(0);
-            }
+    @CommandLine.Option(names = MAX_CONCURRENT_REQUESTS_OPTION,
+            defaultValue = "" + ConcurrencyLimitingTransporterFactory.DEFAULT_MAX_CONCURRENT_REQUESTS,
+            description = "Upper bound of concurrent requests to a single repository. The actual number of concurrent " +
+                    "requests adapts to the repository latency and throttling responses.",
+            paramLabel = "count")
+    void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("The number of concurrent requests must be positive.");
         }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        systemSession.setConfigProperty(ConcurrencyLimitingTransporterFactory.MAX_CONCURRENT_REQUESTS_PROPERTY,
+                maxConcurrentRequests);
     }
 
-    protected Channel resolveChannel(ChannelCoordinate coordinate, List<Repository> repositories) {
-        try (VersionResolverFactory resolverFactory = new VersionResolverFactory(system, systemSession)) {
-            try (MavenVersionsResolver resolver = resolverFactory.create(repositories)) {
-                List<URL> urls = resolver.resolveChannelMetadata(List.of(coordinate));
-                return ChannelMapper.from(urls.get(0));
-            }
+    /**
+     * Starts recording a metadata snapshot, or replays a previously recorded one, if requested.
+     *
+     * @param recordArchive snapshot archive to be recorded, or null
+     * @param replayArchive snapshot archive to be replayed, or null
+     */
+    protected void openSnapshot(Path recordArchive, Path replayArchive) throws IOException {
+        if (recordArchive != null && replayArchive != null) {
+            throw new IllegalArgumentException("A snapshot can't be recorded and replayed at the same time.");
+        }
+        Path localRepository = systemSession.getLocalRepository().getBasedir().toPath();
+        if (recordArchive != null) {
+            snapshot = MetadataSnapshot.record(recordArchive, localRepository);
+        } else if (replayArchive != null) {
+            snapshot = MetadataSnapshot.replay(replayArchive, localRepository);
+            // Everything is already present in the local repository, make sure nothing is fetched.
+            systemSession.setOffline(true);
+        }
+    }
+
+    protected void closeSnapshot() throws IOException {
+        if (snapshot != null) {
+            snapshot.close();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * When a snapshot is being recorded or replayed, replaces the URL based coordinate with a coordinate pointing to
+     * the snapshot copy of the resource.
+     */
+    protected ChannelCoordinate localize(ChannelCoordinate coordinate) throws IOException {
+        if (snapshot == null || coordinate == null || coordinate.getUrl() == null) {
+            return coordinate;
+        }
+        return new ChannelCoordinate(snapshot.localize(coordinate.getUrl()));
+    }
+
+    protected ChannelManifestCoordinate localize(ChannelManifestCoordinate coordinate) throws IOException {
+        if (snapshot == null || coordinate == null || coordinate.getUrl() == null) {
+            return coordinate;
+        }
+        return new ChannelManifestCoordinate(snapshot.localize(coordinate.getUrl()));
+    }
+
+    protected BlocklistCoordinate localize(BlocklistCoordinate coordinate) throws IOException {
+        if (snapshot == null || coordinate == null || coordinate.getUrl() == null) {
+            return coordinate;
+        }
+        return new BlocklistCoordinate(snapshot.localize(coordinate.getUrl()));
+    }
+
+    protected List<Channel> localize(List<Channel> channels) throws IOException {
+        if (snapshot == null) {
+            return channels;
+        }
+        List<Channel> result = new ArrayList<>();
+        for (Channel channel : channels) {
+            result.add(new Channel(channel.getName(), channel.getDescription(), channel.getVendor(),
+                    channel.getRepositories(), localize(channel.getManifestCoordinate()),
+                    localize(channel.getBlocklistCoordinate()), channel.getNoStreamStrategy()));
         }
+        return result;
+    }
+
+    /**
+     * Starts reporting progress of the command, including the transfers of the repository system session.
+     *
+     * @return the reporter, the caller is responsible for closing it
+     */
+    protected ProgressReporter startProgress(String task, ProgressReporter.Mode mode, int intervalSeconds) {
+        ProgressReporter reporter = ProgressReporter.start(task, mode, Duration.ofSeconds(intervalSeconds));
+        systemSession.setTransferListener(ChainedTransferListener.newInstance(systemSession.getTransferListener(),
+                reporter));
+        return reporter;
+    }
+
+    /**
+     * @return a new context for resolving channel metadata, the caller is responsible for closing it
+     */
+    protected ResolverContext newResolverContext() {
+        return new ResolverContext(system, systemSession);
     }
 
     @SuppressWarnings("deprecation")
     protected static RepositorySystem newRepositorySystem() {
+        return newServiceLocator().getService(RepositorySystem.class);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static DefaultServiceLocator newServiceLocator() {
         final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-        locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
-        locator.addService(TransporterFactory.class, FileTransporterFactory.class);
+        // Requests to remote repositories go through per-repository adaptive concurrency limiters.
+        locator.setServices(TransporterFactory.class,
+                new ConcurrencyLimitingTransporterFactory(new HttpTransporterFactory()),
+                new ConcurrencyLimitingTransporterFactory(new JdkHttpTransporterFactory()),
+                new FileTransporterFactory());
         locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
             @Override
             public void serviceCreationFailed(Class<?> type, Class<?> impl, Throwable exception) {
                 logger.error("A Maven service creation failed", exception);
             }
         });
-        return locator.getService(RepositorySystem.class);
+        return locator;
     }
 
     protected static DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system) throws IOException {
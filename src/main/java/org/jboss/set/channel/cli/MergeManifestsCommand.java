@@ -1,5 +1,6 @@
 package org.jboss.set.channel.cli;
 
+import org.jboss.set.channel.cli.resolver.ResolverContext;
 import org.jboss.set.channel.cli.utils.ConversionUtils;
 import org.jboss.set.channel.cli.utils.IOUtils;
 import org.wildfly.channel.ChannelManifest;
@@ -49,11 +50,13 @@ public class MergeManifestsCommand extends MavenBasedCommand {
 
         List<Repository> repositories = ConversionUtils.toChannelRepositoryList(manifestRepositoriesUrls);
 
-        ChannelManifest firstManifest = resolveManifest(firstCoordinate, repositories);
-        ChannelManifest secondManifest = resolveManifest(secondCoordinate, repositories);
+        try (ResolverContext resolverContext = newResolverContext()) {
+            ChannelManifest firstManifest = resolverContext.resolveManifest(firstCoordinate, repositories);
+            ChannelManifest secondManifest = resolverContext.resolveManifest(secondCoordinate, repositories);
 
-        Collection<Stream> mergedStreams = mergeStreams(firstManifest.getStreams(), secondManifest.getStreams());
-        IOUtils.writeManifestFile(outputFile, mergedStreams);
+            Collection<Stream> mergedStreams = mergeStreams(firstManifest.getStreams(), secondManifest.getStreams());
+            IOUtils.writeManifestFile(outputFile, mergedStreams);
+        }
 
         return CommandLine.ExitCode.OK;
     }
@@ -0,0 +1,12 @@
+package org.jboss.set.channel.cli;
+
+import picocli.CommandLine;
+
+/**
+ * Alias of {@link RenderReportCommand}, which merges the results of sharded runs itself.
+ */
+@CommandLine.Command(name = "merge-upgrade-results",
+        description = "Combines results of sharded find-upgrades runs into the report and the manifest files, as if " +
+                "the channel was checked by a single run. Same as render-report.")
+public class MergeUpgradeResultsCommand extends RenderReportCommand {
+}
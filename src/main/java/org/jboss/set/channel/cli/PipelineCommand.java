@@ -0,0 +1,99 @@
+package org.jboss.set.channel.cli;
+
+import org.jboss.set.channel.cli.pipeline.PipelineSpec;
+import org.jboss.set.channel.cli.resolver.ResolverContext;
+import org.jboss.set.channel.cli.results.UpgradeOutputs;
+import org.jboss.set.channel.cli.results.UpgradeResults;
+import org.jboss.set.channel.cli.utils.ConversionUtils;
+import org.jboss.set.channel.cli.utils.IOUtils;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@CommandLine.Command(name = "pipeline",
+        description = "Runs find-upgrades, merge-manifests and create-channel in a single process, as described by " +
+                "a pipeline spec file. The manifests and the channel are passed between the steps in memory.")
+public class PipelineCommand extends MavenBasedCommand {
+
+    static final Path MANIFEST_FILE = Path.of("manifest.yaml");
+    static final Path CHANNEL_FILE = Path.of("channel.yaml");
+
+    @CommandLine.Parameters(index = "0", description = "Pipeline spec YAML file.",
+            paramLabel = "spec")
+    private Path specFile;
+
+    @CommandLine.Option(names = "--output-dir", defaultValue = ".",
+            description = "Directory where the outputs of find-upgrades, the merged manifest and the channel should be written.",
+            paramLabel = "directory")
+    private Path outputDirectory;
+
+    @Override
+    public Integer call() throws Exception {
+        final PipelineSpec spec = PipelineSpec.read(specFile);
+
+        // All the steps share the repository session of this command, and a single resolver context, so that the
+        // same channel metadata is never resolved twice.
+        try (ResolverContext resolverContext = newResolverContext()) {
+            final FindUpgradesCommand findUpgrades = new FindUpgradesCommand(this);
+            final List<String> args = new ArrayList<>();
+            args.add(spec.getFindUpgrades().getChannel());
+            args.addAll(spec.getFindUpgrades().getArgs());
+            args.add("--output-dir");
+            args.add(outputDirectory.toString());
+            final CommandLine.ParseResult parseResult = new CommandLine(findUpgrades)
+                    .parseArgs(args.toArray(new String[0]));
+            // The step shares the session, parsing its arguments has reset the transport options given to the
+            // pipeline, unless the step sets them itself.
+            findUpgrades.applySessionOptions(this, parseResult);
+            logger.info("Pipeline step find-upgrades");
+            final UpgradeResults results = findUpgrades.runInPipeline(resolverContext);
+
+            ChannelManifest manifest = new ChannelManifest("upgraded components", null, null,
+                    UpgradeOutputs.diffStreams(results));
+            if (spec.getMergeManifests() != null) {
+                logger.info("Pipeline step merge-manifests");
+                manifest = mergeManifests(resolverContext, manifest, spec.getMergeManifests());
+            }
+            final Path manifestFile = outputDirectory.resolve(MANIFEST_FILE);
+            IOUtils.writeManifestFile(manifestFile, manifest.getStreams());
+
+            if (spec.getCreateChannel() != null) {
+                logger.info("Pipeline step create-channel");
+                final Channel channel = createChannel(spec.getCreateChannel(), manifestFile);
+                IOUtils.writeChannelFile(outputDirectory.resolve(CHANNEL_FILE), channel);
+            }
+        }
+
+        return CommandLine.ExitCode.OK;
+    }
+
+    private static ChannelManifest mergeManifests(ResolverContext resolverContext, ChannelManifest manifest,
+                                                  PipelineSpec.MergeManifests step) {
+        final ChannelManifestCoordinate coordinate = ConversionUtils.toManifestCoordinate(step.getManifest());
+        if (coordinate == null) {
+            throw new IllegalArgumentException("Invalid coordinate: " + step.getManifest());
+        }
+        final ChannelManifest overrides = resolverContext.resolveManifest(coordinate,
+                ConversionUtils.toChannelRepositoryList(step.getManifestRepositories()));
+        return new ChannelManifest(manifest.getName(), null, null,
+                List.copyOf(MergeManifestsCommand.mergeStreams(manifest.getStreams(), overrides.getStreams())));
+    }
+
+    private static Channel createChannel(PipelineSpec.CreateChannel step, Path manifestFile) {
+        if (step.getRepositories() == null || step.getRepositories().isEmpty()) {
+            throw new IllegalArgumentException("The create-channel step requires repositories.");
+        }
+        final ChannelManifestCoordinate manifestCoordinate = step.getManifestCoordinate() == null
+                ? ConversionUtils.toManifestCoordinate(manifestFile.toUri().toString())
+                : ConversionUtils.toManifestCoordinate(step.getManifestCoordinate());
+        return new Channel(step.getName(), step.getDescription(), null,
+                ConversionUtils.toChannelRepositoryList(step.getRepositories()), manifestCoordinate,
+                ConversionUtils.toBlocklistCoordinate(step.getBlocklistCoordinate()),
+                ConversionUtils.toNoStreamStrategy(step.getNoStreamStrategy()));
+    }
+}
@@ -0,0 +1,100 @@
+package org.jboss.set.channel.cli;
+
+import org.jboss.set.channel.cli.filter.VersionFilter;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.jboss.set.channel.cli.report.ReportFormat;
+import org.jboss.set.channel.cli.resolver.QueryHistory;
+import org.jboss.set.channel.cli.resolver.QueryPlanner;
+import org.jboss.set.channel.cli.results.UpgradeOutputs;
+import org.jboss.set.channel.cli.results.UpgradeResults;
+import org.jboss.set.channel.cli.results.UpgradeResultsFile;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+@CommandLine.Command(name = "render-report",
+        description = "Renders the report and the manifest files from upgrade results written by find-upgrades, " +
+                "optionally narrowed down to selected components and versions. No repository is contacted.")
+public class RenderReportCommand implements Callable<Integer> {
+
+    @CommandLine.Parameters(arity = "1..*",
+            description = "Results files written by find-upgrades. Results of sharded runs are merged first.",
+            paramLabel = "resultsFile")
+    private List<Path> resultsFiles;
+
+    @CommandLine.Option(names = "--include-pattern",
+            description = "Regexp that versions need to match in order to be added to the report.")
+    private String versionsInclude;
+
+    @CommandLine.Option(names = "--exclude-pattern",
+            description = "Regexp to exclude versions from being added to the report.")
+    private String versionsExclude;
+
+    @CommandLine.Option(names = "--include-glob", split = ",",
+            description = "Comma separated globs (`*` and `?` being wildcards), versions need to match at least one of them in order to be added to the report.",
+            paramLabel = "glob")
+    private List<String> includeGlobs;
+
+    @CommandLine.Option(names = "--exclude-glob", split = ",",
+            description = "Comma separated globs (`*` and `?` being wildcards) of versions to exclude from the report.",
+            paramLabel = "glob")
+    private List<String> excludeGlobs;
+
+    @CommandLine.Option(names = "--version-range",
+            description = "Maven version range that versions need to fall into in order to be added to the report, e.g. `[1.0,2.0)`.",
+            paramLabel = "range")
+    private String versionRange;
+
+    @CommandLine.Option(names = "--include-groups", split = ",",
+            description = "Comma separated `groupId` or `groupId:artifactId` patterns (`*` being a wildcard) of components that should be added to the report. All components are added by default.",
+            paramLabel = "pattern")
+    private List<String> includeGroups;
+
+    @CommandLine.Option(names = "--exclude-groups", split = ",",
+            description = "Comma separated `groupId` or `groupId:artifactId` patterns (`*` being a wildcard) of components that should not be added to the report.",
+            paramLabel = "pattern")
+    private List<String> excludeGroups;
+
+    @CommandLine.Option(names = "--report-format", defaultValue = "STATIC",
+            description = "Format of the HTML report, one of ${COMPLETION-CANDIDATES}. INTERACTIVE embeds the data as JSON and renders the rows in the browser, which keeps very large reports small and fast to open.",
+            paramLabel = "format")
+    private ReportFormat reportFormat;
+
+    @CommandLine.Option(names = "--version-history",
+            description = "Version history file written by find-upgrades, used to show in the report since when each upgrade is available.",
+            paramLabel = "file")
+    private Path versionHistoryFile;
+
+    @CommandLine.Option(names = "--output-dir", defaultValue = ".",
+            description = "Directory where the report and the manifest files should be written.",
+            paramLabel = "directory")
+    private Path outputDirectory;
+
+    @Override
+    public Integer call() throws Exception {
+        final VersionFilter versionFilter = VersionFilter.builder()
+                .include(versionsInclude == null ? null : Pattern.compile(versionsInclude))
+                .exclude(versionsExclude == null ? null : Pattern.compile(versionsExclude))
+                .includeGlobs(includeGlobs)
+                .excludeGlobs(excludeGlobs)
+                .range(versionRange)
+                .build();
+        final QueryPlanner componentFilter = new QueryPlanner(includeGroups, excludeGroups, QueryHistory.empty());
+
+        final List<UpgradeResults> parts = new ArrayList<>();
+        for (Path resultsFile : resultsFiles) {
+            parts.add(UpgradeResultsFile.read(resultsFile));
+        }
+        // Results of a shard are merged even on their own, which verifies no other shard is missing
+        final UpgradeResults results = parts.size() == 1 && parts.get(0).getShard() == null ? parts.get(0)
+                : UpgradeResults.merge(parts);
+        UpgradeOutputs.write(results.filter(componentFilter::accepts, versionFilter), outputDirectory,
+                reportFormat, versionHistoryFile == null ? null : VersionHistory.load(versionHistoryFile));
+        return CommandLine.ExitCode.OK;
+    }
+
+}
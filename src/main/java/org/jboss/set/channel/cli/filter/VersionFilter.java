@@ -0,0 +1,201 @@
+package org.jboss.set.channel.cli.filter;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+import org.wildfly.channel.Blocklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which versions are candidates for an upgrade.
+ * <p>
+ * The include / exclude patterns, globs and the version range are compiled into a single predicate chain, which only
+ * depends on the version string. Its verdict is memoized per distinct version string, because the same versions and
+ * qualifiers repeat across many components. The blocklist, which is specific to each component, is applied on top.
+ * <p>
+ * Instances are thread safe.
+ */
+public class VersionFilter {
+
+    private static final VersionScheme VERSION_SCHEME = new GenericVersionScheme();
+    // Upper bound of the number of memoized verdicts, to keep the memory usage bounded on huge inputs.
+    private static final int MAX_MEMOIZED_VERDICTS = 1 << 20;
+
+    private final Predicate<String> predicate;
+    private final List<Blocklist> blocklists;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> blockedVersions = new ConcurrentHashMap<>();
+
+    private VersionFilter(Predicate<String> predicate, List<Blocklist> blocklists) {
+        this.predicate = predicate;
+        this.blocklists = blocklists;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Evaluates given versions of a component.
+     *
+     * @param groupId component groupId
+     * @param artifactId component artifactId
+     * @param versions version strings
+     * @return accepted versions, in the original order
+     */
+    public List<String> filter(String groupId, String artifactId, Collection<String> versions) {
+        Predicate<String> componentFilter = forComponent(groupId, artifactId);
+        List<String> result = new ArrayList<>(versions.size());
+        for (String version : versions) {
+            if (componentFilter.test(version)) {
+                result.add(version);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return predicate accepting version strings of given component
+     */
+    public Predicate<String> forComponent(String groupId, String artifactId) {
+        Set<String> blocked = blockedVersions(groupId, artifactId);
+        return version -> accepts(version) && !blocked.contains(version);
+    }
+
+    boolean accepts(String version) {
+        Boolean verdict = verdicts.get(version);
+        if (verdict == null) {
+            verdict = predicate.test(version);
+            if (verdicts.size() < MAX_MEMOIZED_VERDICTS) {
+                verdicts.put(version, verdict);
+            }
+        }
+        return verdict;
+    }
+
+    private Set<String> blockedVersions(String groupId, String artifactId) {
+        if (blocklists.isEmpty()) {
+            return Set.of();
+        }
+        return blockedVersions.computeIfAbsent(groupId + ":" + artifactId, ga -> {
+            Set<String> blocked = new HashSet<>();
+            for (Blocklist blocklist : blocklists) {
+                blocked.addAll(blocklist.getVersionsFor(groupId, artifactId));
+            }
+            return blocked.isEmpty() ? Set.of() : blocked;
+        });
+    }
+
+    public static class Builder {
+
+        private final List<Predicate<String>> predicates = new ArrayList<>();
+        private final List<Pattern> includeGlobs = new ArrayList<>();
+        private final List<Blocklist> blocklists = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Versions have to contain a match of given regular expression.
+         */
+        public Builder include(Pattern pattern) {
+            if (pattern != null) {
+                predicates.add(v -> pattern.matcher(v).find());
+            }
+            return this;
+        }
+
+        /**
+         * Versions must not contain a match of given regular expression.
+         */
+        public Builder exclude(Pattern pattern) {
+            if (pattern != null) {
+                predicates.add(v -> !pattern.matcher(v).find());
+            }
+            return this;
+        }
+
+        /**
+         * Versions have to match at least one of the included globs, where `*` matches any sequence of characters
+         * and `?` any single character.
+         */
+        public Builder includeGlobs(Collection<String> globs) {
+            if (globs != null) {
+                globs.stream().map(Builder::compileGlob).forEach(includeGlobs::add);
+            }
+            return this;
+        }
+
+        /**
+         * Versions must not match any of given globs.
+         */
+        public Builder excludeGlobs(Collection<String> globs) {
+            if (globs != null) {
+                for (String glob : globs) {
+                    Pattern pattern = compileGlob(glob);
+                    predicates.add(v -> !pattern.matcher(v).matches());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Versions have to fall into given Maven version range, e.g. "[1.0,2.0)".
+         */
+        public Builder range(String range) {
+            if (range != null) {
+                try {
+                    VersionConstraint constraint = VERSION_SCHEME.parseVersionConstraint(range);
+                    predicates.add(v -> {
+                        try {
+                            return constraint.containsVersion(VERSION_SCHEME.parseVersion(v));
+                        } catch (InvalidVersionSpecificationException e) {
+                            return false;
+                        }
+                    });
+                } catch (InvalidVersionSpecificationException e) {
+                    throw new IllegalArgumentException("Invalid version range: " + range, e);
+                }
+            }
+            return this;
+        }
+
+        public Builder blocklists(Collection<Blocklist> blocklists) {
+            if (blocklists != null) {
+                this.blocklists.addAll(blocklists);
+            }
+            return this;
+        }
+
+        public VersionFilter build() {
+            List<Predicate<String>> chain = new ArrayList<>();
+            if (!includeGlobs.isEmpty()) {
+                List<Pattern> globs = List.copyOf(includeGlobs);
+                chain.add(v -> globs.stream().anyMatch(p -> p.matcher(v).matches()));
+            }
+            chain.addAll(predicates);
+            Predicate<String> predicate = chain.stream().reduce(Predicate::and).orElse(v -> true);
+            return new VersionFilter(predicate, List.copyOf(blocklists));
+        }
+
+        private static Pattern compileGlob(String glob) {
+            return Pattern.compile(Arrays.stream(glob.trim().split("\\*", -1))
+                    .map(part -> Arrays.stream(part.split("\\?", -1))
+                            .map(Pattern::quote)
+                            .collect(Collectors.joining(".")))
+                    .collect(Collectors.joining(".*")));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.jboss.set.channel.cli.history;
+
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Remembers when each version of each GA was seen for the first time, across runs.
+ * <p>
+ * The history file is append-only: a magic number and a format version, followed by batches of newly seen versions,
+ * one batch per {@link #save()}, each batch a separate gzip member. When the file accumulates too many batches, or its
+ * last batch was cut short, it's rewritten as a single batch on the next save.
+ */
+public class VersionHistory {
+
+    private static final Logger logger = Logger.getLogger(VersionHistory.class);
+
+    private static final byte[] MAGIC = "WCVH".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 1;
+    private static final int BATCH_MARKER = 1;
+    // Number of batches after which the file is compacted
+    static final int MAX_BATCHES = 64;
+
+    private final Path file;
+    private final Map<String, Map<String, Long>> firstSeen = new ConcurrentHashMap<>();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private int batches;
+    private boolean rewrite;
+
+    private VersionHistory(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the history from given file. A missing file results in an empty history. If the file is unreadable, the
+     * versions read before the failure are kept.
+     */
+    public static VersionHistory load(Path file) {
+        VersionHistory history = new VersionHistory(file);
+        if (file != null && Files.isRegularFile(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                history.read(in);
+            } catch (IOException e) {
+                logger.warnf("Failed to read version history from %s, it will be rewritten: %s", file,
+                        e.getMessage());
+                history.rewrite = true;
+            }
+        }
+        return history;
+    }
+
+    /**
+     * @return an empty history that is not persisted
+     */
+    public static VersionHistory empty() {
+        return new VersionHistory(null);
+    }
+
+    /**
+     * @return when given version was seen for the first time, or null if it was never seen
+     */
+    public Instant getFirstSeen(String groupId, String artifactId, String version) {
+        Map<String, Long> versions = firstSeen.get(key(groupId, artifactId));
+        Long timestamp = versions == null ? null : versions.get(version);
+        return timestamp == null ? null : Instant.ofEpochMilli(timestamp);
+    }
+
+    /**
+     * Records that given version was seen now. Versions seen before keep their original timestamp.
+     */
+    public void record(String groupId, String artifactId, String version) {
+        record(groupId, artifactId, version, System.currentTimeMillis());
+    }
+
+    void record(String groupId, String artifactId, String version, long timestamp) {
+        String key = key(groupId, artifactId);
+        if (firstSeen.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).putIfAbsent(version, timestamp) == null) {
+            pending.add(new Entry(key, version, timestamp));
+        }
+    }
+
+    /**
+     * @return number of GAs in the history
+     */
+    public int size() {
+        return firstSeen.size();
+    }
+
+    /**
+     * Appends the versions recorded since the history was loaded or last saved to the history file.
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (rewrite || batches >= MAX_BATCHES || !Files.isRegularFile(file)) {
+            pending.clear();
+            List<Entry> entries = new ArrayList<>();
+            firstSeen.forEach((key, versions) -> versions.forEach(
+                    (version, timestamp) -> entries.add(new Entry(key, version, timestamp))));
+            Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                    out.write(MAGIC);
+                    out.write(FORMAT_VERSION);
+                    writeBatch(out, entries);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            logger.debugf("Rewrote version history %s with %d versions", file, entries.size());
+            batches = 1;
+            rewrite = false;
+            return;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (Entry entry = pending.poll(); entry != null; entry = pending.poll()) {
+            entries.add(entry);
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND))) {
+            writeBatch(out, entries);
+        }
+        logger.debugf("Appended %d new versions to version history %s", entries.size(), file);
+        batches++;
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a version history file");
+        }
+        int formatVersion = in.readUnsignedByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported version history format " + formatVersion);
+        }
+        if (in.available() == 0) {
+            return;
+        }
+        // The batches are consecutive gzip members, which read as a single stream
+        try (DataInputStream batchesIn = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+            for (int marker = batchesIn.read(); marker >= 0; marker = batchesIn.read()) {
+                if (marker != BATCH_MARKER) {
+                    throw new IOException("Corrupted version history batch");
+                }
+                readBatch(batchesIn);
+                batches++;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated version history", e);
+        }
+    }
+
+    private void readBatch(DataInputStream in) throws IOException {
+        int gaCount = in.readInt();
+        for (int i = 0; i < gaCount; i++) {
+            String key = in.readUTF();
+            Map<String, Long> versions = firstSeen.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+            int versionCount = in.readInt();
+            for (int j = 0; j < versionCount; j++) {
+                String version = in.readUTF();
+                long timestamp = in.readLong();
+                versions.merge(version, timestamp, Math::min);
+            }
+        }
+    }
+
+    private static void writeBatch(OutputStream out, List<Entry> entries) throws IOException {
+        Map<String, List<Entry>> byKey = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            byKey.computeIfAbsent(entry.key(), k -> new ArrayList<>()).add(entry);
+        }
+        // Not closed, that would close the underlying stream
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        DataOutputStream batch = new DataOutputStream(gzip);
+        batch.writeByte(BATCH_MARKER);
+        batch.writeInt(byKey.size());
+        for (Map.Entry<String, List<Entry>> ga : byKey.entrySet()) {
+            batch.writeUTF(ga.getKey());
+            batch.writeInt(ga.getValue().size());
+            for (Entry entry : ga.getValue()) {
+                batch.writeUTF(entry.version());
+                batch.writeLong(entry.timestamp());
+            }
+        }
+        batch.flush();
+        gzip.finish();
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    private record Entry(String key, String version, long timestamp) {
+    }
+}
@@ -0,0 +1,132 @@
+package org.jboss.set.channel.cli.index;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.Stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the GAVs of a Maven repository on the local file system from its maven-metadata.xml files.
+ */
+public final class LocalRepositoryScanner {
+
+    private static final Logger logger = Logger.getLogger(LocalRepositoryScanner.class);
+
+    private static final String MAVEN_METADATA_XML = "maven-metadata.xml";
+    private static final String ZIP_SUFFIX = ".zip";
+
+    private LocalRepositoryScanner() {
+    }
+
+    /**
+     * Collects streams for all GAVs listed in the maven-metadata.xml files of given repository.
+     * <p>
+     * Zip files are read in place via a zip file system, without being extracted to disk. Only the maven-metadata.xml
+     * entries are ever read, and the metadata files are parsed in parallel.
+     *
+     * @param repositoryPath repository directory or a zip file containing the repository
+     * @return streams representing GAVs available in the repository
+     */
+    public static List<Stream> scanRepository(Path repositoryPath) throws IOException {
+        return scan(repositoryPath, false, false);
+    }
+
+    /**
+     * Builds a version index of given repository, so that the versions of its components can be looked up without
+     * going through the repository system.
+     * <p>
+     * Unlike {@link #scanRepository(Path)}, GA level metadata that also contain a top level version (as written by
+     * older Maven 2 deploys) are included, because the repository system reads their versions too. Only the version
+     * level metadata are skipped. Metadata files that can't be read or parsed are logged and skipped, so that a single
+     * broken file doesn't fail the whole run; the repository system doesn't fail on those either.
+     *
+     * @param repositoryPath repository directory or a zip file containing the repository
+     */
+    public static VersionIndex indexRepository(Path repositoryPath) throws IOException {
+        final VersionIndex index = new VersionIndex();
+        for (Stream stream : scan(repositoryPath, true, true)) {
+            index.add(stream.getGroupId(), stream.getArtifactId(), stream.getVersion());
+        }
+        return index;
+    }
+
+    /**
+     * @param skipUnreadable whether metadata files that can't be read are skipped, instead of failing the scan
+     */
+    private static List<Stream> scan(Path repositoryPath, boolean includeVersionedGaMetadata, boolean skipUnreadable)
+            throws IOException {
+        if (isZipFile(repositoryPath)) {
+            try (FileSystem zipFileSystem = FileSystems.newFileSystem(repositoryPath)) {
+                return scanDirectory(zipFileSystem.getPath("/"), includeVersionedGaMetadata, skipUnreadable);
+            }
+        }
+        return scanDirectory(repositoryPath, includeVersionedGaMetadata, skipUnreadable);
+    }
+
+    private static List<Stream> scanDirectory(Path root, boolean includeVersionedGaMetadata, boolean skipUnreadable)
+            throws IOException {
+        final List<Path> metadataFiles;
+        try (java.util.stream.Stream<Path> stream = Files.walk(root)) {
+            metadataFiles = stream.filter(p -> p.getFileName() != null
+                            && MAVEN_METADATA_XML.equals(p.getFileName().toString()))
+                    .toList();
+        }
+
+        return metadataFiles.parallelStream()
+                .flatMap(metadataFile -> readStreams(metadataFile, includeVersionedGaMetadata, skipUnreadable)
+                        .stream())
+                .toList();
+    }
+
+    private static List<Stream> readStreams(Path metadataFile, boolean includeVersionedGaMetadata,
+                                            boolean skipUnreadable) {
+        try (InputStream is = Files.newInputStream(metadataFile)) {
+            MetadataXpp3Reader reader = new MetadataXpp3Reader();
+            Metadata metadata = reader.read(is);
+            if (metadata.getVersioning() == null) {
+                return Collections.emptyList();
+            }
+            if (metadata.getVersion() != null
+                    && (!includeVersionedGaMetadata || isVersionLevel(metadataFile, metadata.getVersion()))) {
+                // Skip metadata files that list specific artifact files, we are just interested in versions.
+                return Collections.emptyList();
+            }
+            ArrayList<Stream> streams = new ArrayList<>();
+            for (String version : metadata.getVersioning().getVersions()) {
+                streams.add(new Stream(metadata.getGroupId(), metadata.getArtifactId(), version));
+            }
+            return streams;
+        } catch (IOException | XmlPullParserException e) {
+            if (skipUnreadable) {
+                logger.warnf("Skipping unreadable metadata file %s: %s", metadataFile, e.getMessage());
+                return Collections.emptyList();
+            }
+            throw new RuntimeException("Failed to read metadata file " + metadataFile, e);
+        }
+    }
+
+    /**
+     * Version level metadata are stored in the directory of the version, GA level metadata in the artifact directory.
+     */
+    private static boolean isVersionLevel(Path metadataFile, String version) {
+        final Path directory = metadataFile.getParent();
+        return directory != null && directory.getFileName() != null
+                && version.equals(directory.getFileName().toString());
+    }
+
+    private static boolean isZipFile(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(ZIP_SUFFIX);
+    }
+}
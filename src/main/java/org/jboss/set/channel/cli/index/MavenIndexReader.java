@@ -0,0 +1,104 @@
+package org.jboss.set.channel.cli.index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a Maven index file in the format published by repository managers: the whole index
+ * ({@code nexus-maven-repository-index.gz}) or one of its incremental chunks.
+ * <p>
+ * The file is a gzipped stream of documents, each document being a list of named fields. Only the fields identifying
+ * the artifacts are decoded: {@code u} of an added artifact and {@code del} of a deleted one, both holding
+ * {@code groupId|artifactId|version|classifier[|extension]}. Everything else is skipped.
+ */
+final class MavenIndexReader {
+
+    static final int SUPPORTED_VERSION = 1;
+    static final String ARTIFACT_FIELD = "u";
+    static final String DELETED_ARTIFACT_FIELD = "del";
+    static final String NO_CLASSIFIER = "NA";
+
+    private MavenIndexReader() {
+    }
+
+    /**
+     * Applies the artifacts added and deleted by given index file to given version index.
+     */
+    static void read(InputStream file, VersionIndex index) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(file), 1 << 16));
+        final int version = in.readUnsignedByte();
+        if (version != SUPPORTED_VERSION) {
+            throw new IOException("Unsupported Maven index version " + version);
+        }
+        in.readLong(); // timestamp
+
+        while (true) {
+            final int fieldCount;
+            try {
+                fieldCount = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            String artifact = null;
+            boolean deleted = false;
+            for (int i = 0; i < fieldCount; i++) {
+                in.readUnsignedByte(); // flags
+                final String name = in.readUTF();
+                final int length = in.readInt();
+                if (ARTIFACT_FIELD.equals(name) || DELETED_ARTIFACT_FIELD.equals(name)) {
+                    artifact = decode(in.readNBytes(length));
+                    deleted = DELETED_ARTIFACT_FIELD.equals(name);
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+            if (artifact != null) {
+                apply(artifact, deleted, index);
+            }
+        }
+    }
+
+    private static void apply(String artifact, boolean deleted, VersionIndex index) {
+        final String[] parts = artifact.split("\\|");
+        if (parts.length < 4) {
+            return;
+        }
+        if (!deleted) {
+            index.add(parts[0], parts[1], parts[2]);
+        } else if (NO_CLASSIFIER.equals(parts[3])) {
+            // Deleting an attached artifact (e.g. sources) doesn't remove the version
+            index.remove(parts[0], parts[1], parts[2]);
+        }
+    }
+
+    /**
+     * Decodes the modified UTF-8 used by {@link java.io.DataOutput#writeUTF(String)}, which the index uses for field
+     * values too, only with a four byte length.
+     */
+    static String decode(byte[] bytes) throws UTFDataFormatException {
+        final char[] chars = new char[bytes.length];
+        int count = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            final int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0 && i + 1 < bytes.length) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0 && i + 2 < bytes.length) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F));
+                i += 3;
+            } else {
+                throw new UTFDataFormatException("Malformed input around byte " + i);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
@@ -0,0 +1,177 @@
+package org.jboss.set.channel.cli.index;
+
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Downloads the Maven index of a repository and builds a {@link VersionIndex} from it.
+ * <p>
+ * The index is described by {@code .index/nexus-maven-repository-index.properties}. When a version index built from
+ * the same index chain is cached from a previous run, only the incremental chunks published since then are
+ * downloaded and applied. Otherwise the whole index is downloaded.
+ */
+public final class RepositoryIndexLoader {
+
+    private static final Logger logger = Logger.getLogger(RepositoryIndexLoader.class);
+
+    static final String PROPERTIES_FILE = ".index/nexus-maven-repository-index.properties";
+    static final String INDEX_FILE = ".index/nexus-maven-repository-index.gz";
+    static final String CHUNK_FILE = ".index/nexus-maven-repository-index.%d.gz";
+    static final String CHAIN_ID_PROPERTY = "nexus.index.chain-id";
+    static final String LAST_INCREMENTAL_PROPERTY = "nexus.index.last-incremental";
+    static final String INCREMENTAL_PROPERTY_PREFIX = "nexus.index.incremental-";
+
+    private RepositoryIndexLoader() {
+    }
+
+    /**
+     * @return name of the file caching the version index of the repository with given URL
+     */
+    public static String cacheFileName(String repositoryUrl) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(repositoryUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + ".idx";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loads the version index of a repository.
+     *
+     * @param transporter transporter of the repository
+     * @param cacheFile file where the version index is kept between runs, or null
+     * @return the version index, or null if the repository doesn't publish a Maven index
+     */
+    public static VersionIndex load(Transporter transporter, Path cacheFile) throws Exception {
+        final byte[] propertiesBytes = fetch(transporter, PROPERTIES_FILE);
+        if (propertiesBytes == null) {
+            return null;
+        }
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(propertiesBytes));
+        final String chainId = properties.getProperty(CHAIN_ID_PROPERTY);
+        final int lastIncremental = Integer.parseInt(properties.getProperty(LAST_INCREMENTAL_PROPERTY, "-1").trim());
+
+        VersionIndex index = readCache(cacheFile);
+        if (index != null && canUpdate(index, chainId, lastIncremental, properties)) {
+            if (index.getLastIncremental() == lastIncremental) {
+                logger.debugf("Cached version index %s is up to date", cacheFile);
+                return index;
+            }
+            if (!applyChunks(transporter, index, lastIncremental)) {
+                index = null;
+            }
+        } else {
+            index = null;
+        }
+
+        if (index == null) {
+            index = new VersionIndex();
+            logger.infof("Downloading the whole Maven index %s", INDEX_FILE);
+            if (!apply(transporter, INDEX_FILE, index)) {
+                throw new IOException("Maven index " + INDEX_FILE + " is described but missing");
+            }
+        }
+        index.setChain(chainId, lastIncremental);
+        if (cacheFile != null) {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            index.write(cacheFile);
+        }
+        return index;
+    }
+
+    /**
+     * The cached index can be updated if it belongs to the same index chain, and all the chunks published since it was
+     * built are still available.
+     */
+    private static boolean canUpdate(VersionIndex index, String chainId, int lastIncremental, Properties properties) {
+        if (chainId == null || !chainId.equals(index.getChainId()) || index.getLastIncremental() > lastIncremental) {
+            return false;
+        }
+        final Set<String> availableChunks = new HashSet<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(INCREMENTAL_PROPERTY_PREFIX)) {
+                availableChunks.add(properties.getProperty(name).trim());
+            }
+        }
+        for (int chunk = index.getLastIncremental() + 1; chunk <= lastIncremental; chunk++) {
+            if (!availableChunks.contains(String.valueOf(chunk))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean applyChunks(Transporter transporter, VersionIndex index, int lastIncremental)
+            throws Exception {
+        for (int chunk = index.getLastIncremental() + 1; chunk <= lastIncremental; chunk++) {
+            logger.debugf("Applying Maven index chunk %d", chunk);
+            if (!apply(transporter, String.format(CHUNK_FILE, chunk), index)) {
+                logger.debugf("Maven index chunk %d is missing", chunk);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean apply(Transporter transporter, String path, VersionIndex index) throws Exception {
+        final Path file = Files.createTempFile("maven-index-", ".gz");
+        try {
+            try {
+                transporter.get(new GetTask(URI.create(path)).setDataFile(file.toFile()));
+            } catch (Exception e) {
+                if (transporter.classify(e) == Transporter.ERROR_NOT_FOUND) {
+                    return false;
+                }
+                throw e;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                MavenIndexReader.read(in, index);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static byte[] fetch(Transporter transporter, String path) throws Exception {
+        final GetTask task = new GetTask(URI.create(path));
+        try {
+            transporter.get(task);
+        } catch (Exception e) {
+            if (transporter.classify(e) == Transporter.ERROR_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+        return task.getDataBytes();
+    }
+
+    private static VersionIndex readCache(Path cacheFile) {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return null;
+        }
+        try {
+            return VersionIndex.read(cacheFile);
+        } catch (IOException e) {
+            logger.warnf("Ignoring unreadable version index %s: %s", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.jboss.set.channel.cli.index;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Versions of all components of a repository, built from the Maven index of the repository.
+ * <p>
+ * Answers version range requests locally, instead of fetching the metadata of each component from the repository.
+ * The index is modified only while it's being loaded, after that it can be queried concurrently.
+ */
+public class VersionIndex {
+
+    private static final VersionScheme VERSION_SCHEME = new GenericVersionScheme();
+    private static final byte[] MAGIC = "WCVI".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, Set<String>> versions = new HashMap<>();
+    // The same versions repeat across many components
+    private final Map<String, String> internedVersions = new HashMap<>();
+    private String chainId;
+    private int lastIncremental = -1;
+
+    void add(String groupId, String artifactId, String version) {
+        String interned = internedVersions.computeIfAbsent(version, v -> v);
+        versions.computeIfAbsent(groupId + ":" + artifactId, k -> new HashSet<>()).add(interned);
+    }
+
+    void remove(String groupId, String artifactId, String version) {
+        String key = groupId + ":" + artifactId;
+        Set<String> componentVersions = versions.get(key);
+        if (componentVersions != null && componentVersions.remove(version) && componentVersions.isEmpty()) {
+            versions.remove(key);
+        }
+    }
+
+    /**
+     * @return versions of given component present in the index
+     */
+    public Set<String> getVersions(String groupId, String artifactId) {
+        Set<String> componentVersions = versions.get(groupId + ":" + artifactId);
+        return componentVersions == null ? Collections.emptySet() : Collections.unmodifiableSet(componentVersions);
+    }
+
+    /**
+     * @return number of components in the index
+     */
+    public int size() {
+        return versions.size();
+    }
+
+    /**
+     * @return ID of the index chain the index was built from, or null if not known
+     */
+    String getChainId() {
+        return chainId;
+    }
+
+    /**
+     * @return number of the last incremental chunk applied to the index, or -1 if not known
+     */
+    int getLastIncremental() {
+        return lastIncremental;
+    }
+
+    void setChain(String chainId, int lastIncremental) {
+        this.chainId = chainId;
+        this.lastIncremental = lastIncremental;
+    }
+
+    /**
+     * Resolves the version range of the requested artifact against the versions in the index, the same way a
+     * repository system would against the repository metadata.
+     */
+    public VersionRangeResult resolveVersionRange(VersionRangeRequest request) throws VersionRangeResolutionException {
+        final VersionRangeResult result = new VersionRangeResult(request);
+        final Artifact artifact = request.getArtifact();
+        final VersionConstraint constraint;
+        try {
+            constraint = VERSION_SCHEME.parseVersionConstraint(artifact.getVersion());
+        } catch (InvalidVersionSpecificationException e) {
+            result.addException(e);
+            throw new VersionRangeResolutionException(result);
+        }
+        result.setVersionConstraint(constraint);
+
+        final List<Version> matching = new ArrayList<>();
+        for (String version : getVersions(artifact.getGroupId(), artifact.getArtifactId())) {
+            try {
+                Version parsed = VERSION_SCHEME.parseVersion(version);
+                if (constraint.containsVersion(parsed)) {
+                    matching.add(parsed);
+                }
+            } catch (InvalidVersionSpecificationException e) {
+                // Not a version that could be requested
+            }
+        }
+        Collections.sort(matching);
+        result.setVersions(matching);
+        return result;
+    }
+
+    /**
+     * Writes the index into given file, so that it can be updated incrementally by a later run.
+     */
+    void write(Path file) throws IOException {
+        final Path temp = file.resolveSibling("." + file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)))) {
+            out.write(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(chainId == null ? "" : chainId);
+            out.writeInt(lastIncremental);
+            out.writeInt(versions.size());
+            for (Map.Entry<String, Set<String>> entry : versions.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String version : entry.getValue()) {
+                    out.writeUTF(version);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static VersionIndex read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16)))) {
+            if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC)) {
+                throw new IOException("Not a version index file: " + file);
+            }
+            final int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported version index format version " + formatVersion);
+            }
+            final VersionIndex index = new VersionIndex();
+            final String chainId = in.readUTF();
+            index.setChain(chainId.isEmpty() ? null : chainId, in.readInt());
+            final int components = in.readInt();
+            for (int i = 0; i < components; i++) {
+                final String key = in.readUTF();
+                final int count = in.readInt();
+                final Set<String> componentVersions = new HashSet<>();
+                for (int j = 0; j < count; j++) {
+                    componentVersions.add(index.internedVersions.computeIfAbsent(in.readUTF(), v -> v));
+                }
+                index.versions.put(key, componentVersions);
+            }
+            return index;
+        }
+    }
+}
@@ -6,13 +6,16 @@ import org.apache.maven.model.DependencyManagement;
 import org.codehaus.plexus.DefaultContainerConfiguration;
 import org.codehaus.plexus.DefaultPlexusContainer;
 import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.PlexusContainerException;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.io.PomIO;
 import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.utils.ConcurrencyUtils;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -21,7 +24,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 @CommandLine.Command(name = "generate-dependency-groups",
         description = "Generate dependency groups for validation purposes. (All dependencies in a group are expected to be of the same version.)")
@@ -40,20 +48,21 @@ public class GenerateDependencyGroupsCommand implements Callable<Integer> {
             description = "prop1=prop2 pair meaning that group defined by a version property \"prop1\" should be merged into group defined by a version property \"prop2\".")
     private String[] equivalents;
 
-    private PomIO pomIO;
-    private ManipulationSession session;
-    private final Map<String, String> equivalencyMapping = new HashMap<>();
+    @CommandLine.Option(names = "--classpath-scanning", defaultValue = PlexusConstants.SCANNING_INDEX,
+            description = "How the Plexus container discovers components: \"index\" reads only the component " +
+                    "indexes, \"on\" scans the whole classpath. If a required component is not found in the index, " +
+                    "full classpath scanning is used as a fallback.")
+    private String classpathScanning;
 
-    private void init() throws ComponentLookupException, PlexusContainerException {
-        final DefaultContainerConfiguration config = new DefaultContainerConfiguration();
-        config.setClassPathScanning(PlexusConstants.SCANNING_ON);
-        config.setComponentVisibility(PlexusConstants.GLOBAL_VISIBILITY);
-        config.setName("Wildfly Channel CLI");
-        DefaultPlexusContainer container = new DefaultPlexusContainer(config);
+    @CommandLine.Option(names = "--parallelism",
+            description = "Number of POM files to be processed concurrently, each thread starts its own Plexus container. Defaults to the number of available processors. With full classpath scanning, the files are processed by a single thread.")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
 
-        pomIO = container.lookup(PomIO.class);
-        session = container.lookup(ManipulationSession.class);
+    // Each worker thread uses PME components of its own container, see newWorker()
+    private final List<PmeWorker> workers = new ArrayList<>();
+    private final Map<String, String> equivalencyMapping = new HashMap<>();
 
+    private void init() throws ComponentLookupException, PlexusContainerException {
         if (equivalents != null) {
             for (String option : equivalents) {
                 String[] split = option.split("=");
@@ -63,46 +72,105 @@ public class GenerateDependencyGroupsCommand implements Callable<Integer> {
                 equivalencyMapping.put(split[0], split[1]);
             }
         }
+
+        // The first worker settles the classpath scanning mode, see newWorker()
+        workers.add(newWorker());
+        int threads = Math.max(1, Math.min(parallelism, pomFiles.length));
+        if (threads > 1 && PlexusConstants.SCANNING_ON.equals(classpathScanning)) {
+            // A full scan takes longer than processing the POM files, it's not worth repeating for every thread
+            logger.warnf("Full classpath scanning is used, the POM files are processed by a single thread " +
+                    "instead of %d.", threads);
+            threads = 1;
+        }
+        while (workers.size() < threads) {
+            workers.add(newWorker());
+        }
+    }
+
+    /**
+     * Creates the PME components used by a single worker thread.
+     * <p>
+     * {@link PomIO} and {@link ManipulationSession} are singletons within a container, and nothing guarantees that
+     * {@link PomIO#parseProject(File)} and {@link PropertyResolver#resolveInheritedProperties} can be called
+     * concurrently on them, so each worker gets a container of its own.
+     */
+    private PmeWorker newWorker() throws ComponentLookupException, PlexusContainerException {
+        PlexusContainer container = createContainer(classpathScanning);
+        try {
+            return new PmeWorker(container, container.lookup(PomIO.class), container.lookup(ManipulationSession.class));
+        } catch (ComponentLookupException e) {
+            container.dispose();
+            if (PlexusConstants.SCANNING_ON.equals(classpathScanning)) {
+                throw e;
+            }
+            logger.warnf("Component lookup failed with classpath scanning \"%s\", falling back to full scan: %s",
+                    classpathScanning, e.getMessage());
+            // The remaining workers use the full scan right away
+            classpathScanning = PlexusConstants.SCANNING_ON;
+            return newWorker();
+        }
+    }
+
+    /**
+     * Creates a Plexus container.
+     * <p>
+     * Full classpath scanning ({@link PlexusConstants#SCANNING_ON}) inspects every class in the fat JAR, which takes
+     * much longer than processing the POM files themselves. The {@link PlexusConstants#SCANNING_INDEX} mode only reads
+     * the META-INF/sisu component indexes shipped with the dependencies.
+     *
+     * @param classpathScanning one of the {@link PlexusConstants} SCANNING_* values
+     */
+    static PlexusContainer createContainer(String classpathScanning) throws PlexusContainerException {
+        final DefaultContainerConfiguration config = new DefaultContainerConfiguration();
+        config.setClassPathScanning(classpathScanning);
+        config.setComponentVisibility(PlexusConstants.GLOBAL_VISIBILITY);
+        config.setName("Wildfly Channel CLI");
+        return new DefaultPlexusContainer(config);
+    }
+
+    int getWorkerCount() {
+        return workers.size();
     }
 
     @Override
     public Integer call() throws Exception {
-        init();
-
-        Map<String, DependencyGroup> depsPerVersionProperty = new TreeMap<>();
-
-        for (File pomFile: pomFiles) {
-            List<Project> projects = pomIO.parseProject(pomFile);
-            for (Project project : projects) {
-                DependencyManagement dependencyManagement = project.getModel().getDependencyManagement();
-                if (dependencyManagement != null) {
-                    for (Dependency dep : dependencyManagement.getDependencies()) {
-                        String groupId = dep.getGroupId();
-                        if (groupId.startsWith("${")) {
-                            groupId = PropertyResolver.resolveInheritedProperties(session, project, groupId);
-                        }
-
-                        String artifactId = dep.getArtifactId();
-                        if (artifactId.startsWith("${")) {
-                            artifactId = PropertyResolver.resolveInheritedProperties(session, project, artifactId);
-                        }
-
-                        if (!dep.getVersion().startsWith("${")) {
-                            logger.errorf("Dependency %s:%s:%s does not use property version, group cannot be determined.",
-                                    groupId, dep.getArtifactId(), dep.getVersion());
-                            continue;
-                        }
-
-                        final String versionProperty = dep.getVersion().substring(2, dep.getVersion().length() - 1);
-                        final String resolvedVersion = PropertyResolver.resolveInheritedProperties(session, project,
-                                dep.getVersion());
-                        final String bucket = equivalencyMapping.getOrDefault(versionProperty, versionProperty);
-                        DependencyGroup dependencyGroup = depsPerVersionProperty.computeIfAbsent(bucket,
-                                b -> new DependencyGroup(versionProperty));
-                        dependencyGroup.getDependencies().add(groupId + ":" + artifactId + ":" + resolvedVersion);
+        try {
+            init();
+            return generateGroups();
+        } finally {
+            workers.forEach(worker -> worker.container().dispose());
+        }
+    }
+
+    private Integer generateGroups() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        // A worker is taken by a task for the time it processes a POM file, there is one worker per thread
+        final BlockingQueue<PmeWorker> idleWorkers = new LinkedBlockingQueue<>(workers);
+        final Map<String, DependencyGroup> depsPerVersionProperty = new TreeMap<>();
+        try {
+            List<Future<List<GroupedDependency>>> futures = new ArrayList<>();
+            for (File pomFile : pomFiles) {
+                futures.add(executor.submit(() -> {
+                    final PmeWorker worker = idleWorkers.take();
+                    try {
+                        return collectDependencies(worker, pomFile);
+                    } finally {
+                        idleWorkers.add(worker);
                     }
+                }));
+            }
+
+            // Merge the results in the order of the given POM files, so that the output doesn't depend on the order
+            // in which the files were processed.
+            for (Future<List<GroupedDependency>> future : futures) {
+                for (GroupedDependency dependency : ConcurrencyUtils.getResult(future)) {
+                    DependencyGroup dependencyGroup = depsPerVersionProperty.computeIfAbsent(dependency.bucket(),
+                            b -> new DependencyGroup(dependency.versionProperty()));
+                    dependencyGroup.getDependencies().add(dependency.gav());
                 }
             }
+        } finally {
+            executor.shutdownNow();
         }
 
         YAMLMapper mapper = new YAMLMapper();
@@ -114,4 +182,59 @@ public class GenerateDependencyGroupsCommand implements Callable<Integer> {
 
         return null;
     }
+
+    private List<GroupedDependency> collectDependencies(PmeWorker worker, File pomFile) throws ManipulationException {
+        final List<GroupedDependency> result = new ArrayList<>();
+        final List<Project> projects = worker.pomIO().parseProject(pomFile);
+        for (Project project : projects) {
+            DependencyManagement dependencyManagement = project.getModel().getDependencyManagement();
+            if (dependencyManagement == null) {
+                continue;
+            }
+
+            // Managed dependencies typically share a handful of properties, remember what has already been resolved.
+            final Map<String, String> resolvedProperties = new HashMap<>();
+            for (Dependency dep : dependencyManagement.getDependencies()) {
+                String groupId = dep.getGroupId();
+                if (groupId.startsWith("${")) {
+                    groupId = resolveProperties(worker, project, resolvedProperties, groupId);
+                }
+
+                String artifactId = dep.getArtifactId();
+                if (artifactId.startsWith("${")) {
+                    artifactId = resolveProperties(worker, project, resolvedProperties, artifactId);
+                }
+
+                if (!dep.getVersion().startsWith("${")) {
+                    logger.errorf("Dependency %s:%s:%s does not use property version, group cannot be determined.",
+                            groupId, dep.getArtifactId(), dep.getVersion());
+                    continue;
+                }
+
+                final String versionProperty = dep.getVersion().substring(2, dep.getVersion().length() - 1);
+                final String resolvedVersion = resolveProperties(worker, project, resolvedProperties, dep.getVersion());
+                final String bucket = equivalencyMapping.getOrDefault(versionProperty, versionProperty);
+                result.add(new GroupedDependency(bucket, versionProperty,
+                        groupId + ":" + artifactId + ":" + resolvedVersion));
+            }
+        }
+        return result;
+    }
+
+    private static String resolveProperties(PmeWorker worker, Project project, Map<String, String> resolvedProperties,
+                                            String expression)
+            throws ManipulationException {
+        String value = resolvedProperties.get(expression);
+        if (value == null) {
+            value = PropertyResolver.resolveInheritedProperties(worker.session(), project, expression);
+            resolvedProperties.put(expression, value);
+        }
+        return value;
+    }
+
+    private record PmeWorker(PlexusContainer container, PomIO pomIO, ManipulationSession session) {
+    }
+
+    private record GroupedDependency(String bucket, String versionProperty, String gav) {
+    }
 }
@@ -0,0 +1,143 @@
+package org.jboss.set.channel.cli.pipeline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Declarative description of the steps run by the pipeline command, read from a YAML file:
+ * <pre>
+ * find-upgrades:
+ *   channel: org.example:base-channel
+ *   args: ["--repositories", "mrrc::https://maven.repository.redhat.com/ga/"]
+ * merge-manifests:
+ *   manifest: file:cve-overrides.yaml
+ * create-channel:
+ *   name: Upgraded channel
+ *   repositories: ["mrrc::https://maven.repository.redhat.com/ga/"]
+ *   manifest-coordinate: org.example:upgraded-manifest:1.0.1
+ * </pre>
+ * Only the find-upgrades step is mandatory. The property names follow the options of the individual commands.
+ */
+public class PipelineSpec {
+
+    @JsonProperty(value = "find-upgrades", required = true)
+    private FindUpgrades findUpgrades;
+
+    @JsonProperty("merge-manifests")
+    private MergeManifests mergeManifests;
+
+    @JsonProperty("create-channel")
+    private CreateChannel createChannel;
+
+    public static PipelineSpec read(Path file) throws IOException {
+        try {
+            PipelineSpec spec = new YAMLMapper().readValue(file.toFile(), PipelineSpec.class);
+            if (spec == null || spec.findUpgrades == null || spec.findUpgrades.channel == null) {
+                throw new IllegalArgumentException("Pipeline spec " + file + " has no find-upgrades channel.");
+            }
+            return spec;
+        } catch (DatabindException e) {
+            throw new IllegalArgumentException("Invalid pipeline spec " + file + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    public FindUpgrades getFindUpgrades() {
+        return findUpgrades;
+    }
+
+    public MergeManifests getMergeManifests() {
+        return mergeManifests;
+    }
+
+    public CreateChannel getCreateChannel() {
+        return createChannel;
+    }
+
+    public static class FindUpgrades {
+
+        // Channel coordinate, URL or GAV
+        @JsonProperty(value = "channel", required = true)
+        private String channel;
+
+        // Further find-upgrades options, in the command line syntax
+        @JsonProperty("args")
+        private List<String> args = List.of();
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public List<String> getArgs() {
+            return args;
+        }
+    }
+
+    public static class MergeManifests {
+
+        // Manifest coordinate, URL or GAV, whose streams override the streams of the find-upgrades manifest
+        @JsonProperty(value = "manifest", required = true)
+        private String manifest;
+
+        @JsonProperty("manifest-repositories")
+        private List<String> manifestRepositories;
+
+        public String getManifest() {
+            return manifest;
+        }
+
+        public List<String> getManifestRepositories() {
+            return manifestRepositories;
+        }
+    }
+
+    public static class CreateChannel {
+
+        @JsonProperty("name")
+        private String name;
+
+        @JsonProperty("description")
+        private String description;
+
+        @JsonProperty(value = "repositories", required = true)
+        private List<String> repositories;
+
+        // Where the manifest written by the pipeline is going to be published, the written file by default
+        @JsonProperty("manifest-coordinate")
+        private String manifestCoordinate;
+
+        @JsonProperty("blocklist-coordinate")
+        private String blocklistCoordinate;
+
+        @JsonProperty("no-stream-strategy")
+        private String noStreamStrategy;
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public List<String> getRepositories() {
+            return repositories;
+        }
+
+        public String getManifestCoordinate() {
+            return manifestCoordinate;
+        }
+
+        public String getBlocklistCoordinate() {
+            return blocklistCoordinate;
+        }
+
+        public String getNoStreamStrategy() {
+            return noStreamStrategy;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.jboss.set.channel.cli.progress;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports progress of a long-running command on stderr: completed work items out of the total, requests and bytes
+ * per second for each repository, in-flight requests and the estimated time to completion.
+ * <p>
+ * Repository statistics are collected by listening to the transfers of the repository system session, and are kept per
+ * repository URL, because repository IDs are not unique (unnamed repositories get generated IDs). The counters are only
+ * incremented on the calling threads, the status line is rendered periodically by a single daemon thread.
+ * <p>
+ * In the {@link Mode#PLAIN} mode, the periodic summary lines stop once all the work items are completed, so that a
+ * command that keeps running afterwards (e.g. find-upgrades --watch) doesn't flood the log.
+ */
+public class ProgressReporter extends AbstractTransferListener implements AutoCloseable {
+
+    private static final Duration INTERACTIVE_INTERVAL = Duration.ofMillis(500);
+    private static final String CLEAR_LINE = "\r\033[K";
+
+    public enum Mode {
+        /**
+         * Interactive status line when running in a terminal, periodic summary lines otherwise.
+         */
+        AUTO,
+        /**
+         * Status line re-drawn in place.
+         */
+        INTERACTIVE,
+        /**
+         * Periodic summary lines, suitable for CI logs.
+         */
+        PLAIN,
+        /**
+         * No progress reporting.
+         */
+        NONE
+    }
+
+    private final String task;
+    private final Mode mode;
+    private final PrintStream out;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final Map<String, RepositoryStats> repositories = new ConcurrentHashMap<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile int total = -1;
+    private ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private long lastRenderNanos;
+    private boolean completionRendered;
+
+    ProgressReporter(String task, Mode mode, PrintStream out, LongSupplier nanoClock) {
+        this.task = task;
+        this.mode = mode == Mode.AUTO ? (System.console() != null ? Mode.INTERACTIVE : Mode.PLAIN) : mode;
+        this.out = out;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.lastRenderNanos = startNanos;
+    }
+
+    /**
+     * Creates a reporter printing on stderr and starts rendering the progress.
+     *
+     * @param task name of the reported task, used as a prefix of the status lines
+     * @param mode reporting mode
+     * @param interval interval of the summary lines in the {@link Mode#PLAIN} mode
+     */
+    public static ProgressReporter start(String task, Mode mode, Duration interval) {
+        ProgressReporter reporter = new ProgressReporter(task, mode, System.err, System::nanoTime);
+        if (reporter.mode != Mode.NONE) {
+            long periodMillis = (reporter.mode == Mode.INTERACTIVE ? INTERACTIVE_INTERVAL : interval).toMillis();
+            reporter.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "progress-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduler.scheduleAtFixedRate(reporter::render, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+        return reporter;
+    }
+
+    /**
+     * Sets the total number of work items, once it's known.
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Marks a single work item as completed.
+     */
+    public void completed() {
+        completed.incrementAndGet();
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent event) {
+        requestStarted(event.getResource().getRepositoryUrl());
+    }
+
+    @Override
+    public void transferProgressed(TransferEvent event) {
+        bytesTransferred(event.getResource().getRepositoryUrl(), event.getDataLength());
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        requestFinished(event.getResource().getRepositoryUrl());
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        requestFinished(event.getResource().getRepositoryUrl());
+    }
+
+    @Override
+    public void transferCorrupted(TransferEvent event) {
+        // The transfer is going to be retried or failed, which is reported separately.
+    }
+
+    void requestStarted(String repositoryUrl) {
+        RepositoryStats stats = stats(repositoryUrl);
+        stats.requests.increment();
+        stats.inFlight.incrementAndGet();
+    }
+
+    void bytesTransferred(String repositoryUrl, long bytes) {
+        stats(repositoryUrl).bytes.add(bytes);
+    }
+
+    void requestFinished(String repositoryUrl) {
+        stats(repositoryUrl).inFlight.decrementAndGet();
+    }
+
+    private RepositoryStats stats(String repositoryUrl) {
+        String key = repositoryUrl == null || repositoryUrl.isEmpty() ? "unknown"
+                : repositoryUrl.endsWith("/") ? repositoryUrl.substring(0, repositoryUrl.length() - 1) : repositoryUrl;
+        return repositories.computeIfAbsent(key, k -> new RepositoryStats());
+    }
+
+    synchronized void render() {
+        if (mode == Mode.PLAIN && total >= 0 && completed.get() >= total) {
+            if (completionRendered) {
+                return;
+            }
+            completionRendered = true;
+        }
+        if (mode == Mode.INTERACTIVE) {
+            out.print(CLEAR_LINE + formatStatus());
+        } else {
+            out.println(formatStatus());
+        }
+        out.flush();
+    }
+
+    /**
+     * Formats the current status. Request and byte rates are computed over the period since the previous call.
+     */
+    synchronized String formatStatus() {
+        final long now = nanoClock.getAsLong();
+        final double periodSeconds = Math.max(1, now - lastRenderNanos) / 1e9;
+        final long elapsedNanos = now - startNanos;
+        lastRenderNanos = now;
+
+        final int done = completed.get();
+        final int total = this.total;
+        StringBuilder sb = new StringBuilder(task).append(": ").append(done);
+        if (total >= 0) {
+            sb.append('/').append(total);
+            if (total > 0) {
+                sb.append(String.format(" (%d%%)", done * 100L / total));
+            }
+        }
+        sb.append(", elapsed ").append(formatDuration(elapsedNanos));
+        if (total > 0 && done > 0 && done < total) {
+            sb.append(", ETA ").append(formatDuration(elapsedNanos / done * (total - done)));
+        }
+
+        int inFlight = 0;
+        for (Map.Entry<String, RepositoryStats> entry : new TreeMap<>(repositories).entrySet()) {
+            RepositoryStats stats = entry.getValue();
+            long requests = stats.requests.sum();
+            long bytes = stats.bytes.sum();
+            sb.append(String.format(" | %s: %.1f req/s, %s/s", entry.getKey(),
+                    (requests - stats.reportedRequests) / periodSeconds,
+                    formatBytes((long) ((bytes - stats.reportedBytes) / periodSeconds))));
+            stats.reportedRequests = requests;
+            stats.reportedBytes = bytes;
+            inFlight += Math.max(0, stats.inFlight.get());
+        }
+        sb.append(" | in-flight ").append(inFlight);
+        return sb.toString();
+    }
+
+    /**
+     * Stops the reporting and prints the final status.
+     */
+    @Override
+    public void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        render();
+        if (mode == Mode.INTERACTIVE) {
+            out.println();
+        }
+    }
+
+    static String formatDuration(long nanos) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        if (seconds >= 3600) {
+            return String.format("%dh%02dm%02ds", seconds / 3600, seconds % 3600 / 60, seconds % 60);
+        } else if (seconds >= 60) {
+            return String.format("%dm%02ds", seconds / 60, seconds % 60);
+        }
+        return seconds + "s";
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        } else if (bytes >= 1024) {
+            return String.format("%.1f kB", bytes / 1024.0);
+        }
+        return bytes + " B";
+    }
+
+    private static class RepositoryStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Values at the previous status, accessed only under the reporter lock
+        private long reportedRequests;
+        private long reportedBytes;
+    }
+}
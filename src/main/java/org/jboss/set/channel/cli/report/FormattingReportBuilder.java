@@ -4,10 +4,14 @@ import j2html.tags.ContainerTag;
 import j2html.tags.DomContent;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.history.VersionHistory;
 import org.jboss.set.channel.cli.utils.VersionUtils;
 import org.wildfly.channel.MavenArtifact;
 import org.wildfly.channel.Repository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -15,7 +19,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static j2html.TagCreator.caption;
@@ -70,7 +73,8 @@ public class FormattingReportBuilder {
     private List<String> repositoryIds = Collections.emptyList();
     private List<Pair<MavenArtifact, List<String>>> upgrades;
     private HashMap<MavenArtifact, Integer> aggregatedCounter;
-    private Map<MavenArtifact, Map<String, String>> artifactsToRepositoryMap = Collections.emptyMap();
+    private RepositoryAttribution repositoryAttribution;
+    private VersionHistory versionHistory;
 
     public FormattingReportBuilder withRepositories(List<Repository> remoteRepositories) {
         this.repositories = remoteRepositories;
@@ -83,8 +87,13 @@ public class FormattingReportBuilder {
         return this;
     }
 
-    public FormattingReportBuilder withArtifactToRepositoryMap(Map<MavenArtifact, Map<String, String>> artifactsToRepositoryMap) {
-        this.artifactsToRepositoryMap = artifactsToRepositoryMap;
+    public FormattingReportBuilder withRepositoryAttribution(RepositoryAttribution repositoryAttribution) {
+        this.repositoryAttribution = repositoryAttribution;
+        return this;
+    }
+
+    public FormattingReportBuilder withVersionHistory(VersionHistory versionHistory) {
+        this.versionHistory = versionHistory;
         return this;
     }
 
@@ -149,9 +158,9 @@ public class FormattingReportBuilder {
         headers.add(th("GAV").withStyle(TH_TD_STYLES));
         headers.add(th("New Version").withStyle(TH_TD_STYLES));
 //        headers.add(th("Repository").withStyle(TH_TD_STYLES));
-        /*if (configuration.getLogger().isSet()) {
+        if (versionHistory != null) {
             headers.add(th("Since").withStyle(TH_TD_STYLES));
-        }*/
+        }
         return headers.toArray(new DomContent[]{});
     }
 
@@ -161,7 +170,8 @@ public class FormattingReportBuilder {
 
         boolean first = true;
         for (String version : upgrade.getRight()) {
-            final String repoId = artifactsToRepositoryMap.getOrDefault(artifact, Collections.emptyMap()).get(version);
+            final String repoId = repositoryAttribution == null ? null
+                    : repositoryAttribution.getRepositoryId(artifact, version);
 
             ArrayList<DomContent> cells = new ArrayList<>();
             if (first) {
@@ -180,6 +190,10 @@ public class FormattingReportBuilder {
                         repoId != null ? span(repoId).withStyle(REPO_LABEL_STYLES + repositoryColor(repoId)) : span()
                 ).withStyle(PADDING));
             }
+            if (versionHistory != null) {
+                cells.add(td(formatSince(versionHistory.getFirstSeen(artifact.getGroupId(), artifact.getArtifactId(),
+                        version))).withStyle(PADDING + GREY_TEXT));
+            }
             tbody.with(tr().with(cells).withStyle(BORDER_TOP));
 
             first = false;
@@ -194,6 +208,18 @@ public class FormattingReportBuilder {
         return tbody;
     }
 
+    /**
+     * @return date when a version was first seen and the number of days since, or an empty string if not known
+     */
+    static String formatSince(Instant firstSeen) {
+        if (firstSeen == null) {
+            return "";
+        }
+        long days = Duration.between(firstSeen, Instant.now()).toDays();
+        return DATE_FORMATTER.format(firstSeen.atZone(ZoneId.systemDefault()))
+                + " (" + days + (days == 1 ? " day)" : " days)");
+    }
+
     private static class AlphabeticalComparator implements Comparator<Pair<MavenArtifact, List<String>>> {
 
         static final AlphabeticalComparator INSTANCE = new AlphabeticalComparator();
@@ -0,0 +1,164 @@
+package org.jboss.set.channel.cli.report;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.jboss.set.channel.cli.utils.VersionUtils;
+import org.wildfly.channel.MavenArtifact;
+import org.wildfly.channel.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a variant of the upgrade report meant for very large numbers of upgrades.
+ * <p>
+ * Instead of a static table, the report data is embedded once as compact JSON, and the rows are rendered by a script
+ * in the browser, only for the visible part of the page. The report can be filtered by groupId and repository, and
+ * collapsed by groupId.
+ */
+public class InteractiveReportBuilder {
+
+    private static final Logger log = Logger.getLogger(InteractiveReportBuilder.class);
+
+    private static final String TEMPLATE = "interactive-report.html";
+    private static final String DATA_PLACEHOLDER = "@REPORT_DATA@";
+
+    private static final Comparator<Pair<MavenArtifact, List<String>>> ALPHABETICAL_ORDER = Comparator
+            .comparing((Pair<MavenArtifact, List<String>> p) -> p.getLeft().getGroupId())
+            .thenComparing(p -> p.getLeft().getArtifactId())
+            .thenComparing(p -> p.getLeft().getVersion());
+
+    private List<Repository> repositories;
+    private List<Pair<MavenArtifact, List<String>>> upgrades;
+    private RepositoryAttribution repositoryAttribution;
+    private VersionHistory versionHistory;
+
+    public InteractiveReportBuilder withRepositories(List<Repository> remoteRepositories) {
+        this.repositories = remoteRepositories;
+        return this;
+    }
+
+    public InteractiveReportBuilder withUpgrades(List<Pair<MavenArtifact, List<String>>> upgrades) {
+        this.upgrades = upgrades;
+        return this;
+    }
+
+    public InteractiveReportBuilder withRepositoryAttribution(RepositoryAttribution repositoryAttribution) {
+        this.repositoryAttribution = repositoryAttribution;
+        return this;
+    }
+
+    public InteractiveReportBuilder withVersionHistory(VersionHistory versionHistory) {
+        this.versionHistory = versionHistory;
+        return this;
+    }
+
+    public String build() {
+        if (upgrades.isEmpty()) {
+            log.info("No components to upgrade.");
+            return null;
+        }
+        // The JSON is placed inside a script element, so it must not contain anything that would end the element.
+        final String json = toJson().replace("<", "\\u003c");
+        return loadTemplate().replace(DATA_PLACEHOLDER, json);
+    }
+
+    String toJson() {
+        final List<Pair<MavenArtifact, List<String>>> sortedUpgrades = upgrades.stream()
+                .sorted(ALPHABETICAL_ORDER)
+                .toList();
+        final Map<String, Integer> repositoryIndexes = new HashMap<>();
+        for (int i = 0; i < repositories.size(); i++) {
+            repositoryIndexes.putIfAbsent(repositories.get(i).getId(), i);
+        }
+
+        final StringWriter writer = new StringWriter(sortedUpgrades.size() * 64);
+        try (JsonGenerator json = new JsonFactory().createGenerator(writer)) {
+            json.writeStartObject();
+            json.writeStringField("generated", FormattingReportBuilder.DATE_FORMATTER.format(ZonedDateTime.now()));
+
+            json.writeArrayFieldStart("repositories");
+            for (Repository repository : repositories) {
+                json.writeStartObject();
+                json.writeStringField("id", repository.getId());
+                json.writeStringField("url", repository.getUrl());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            // Components refer to their groupId by index, groupIds are listed in the order of the components.
+            final Map<String, Integer> groupIndexes = new HashMap<>();
+            json.writeArrayFieldStart("groupIds");
+            for (Pair<MavenArtifact, List<String>> upgrade : sortedUpgrades) {
+                String groupId = upgrade.getLeft().getGroupId();
+                if (!groupIndexes.containsKey(groupId)) {
+                    groupIndexes.put(groupId, groupIndexes.size());
+                    json.writeString(groupId);
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("components");
+            for (Pair<MavenArtifact, List<String>> upgrade : sortedUpgrades) {
+                final MavenArtifact artifact = upgrade.getLeft();
+                final List<String> versions = upgrade.getRight();
+                json.writeStartArray();
+                json.writeNumber(groupIndexes.get(artifact.getGroupId()));
+                json.writeString(artifact.getArtifactId());
+                json.writeString(artifact.getVersion());
+                json.writeStartArray();
+                for (String version : versions) {
+                    json.writeString(version);
+                }
+                json.writeEndArray();
+                json.writeStartArray();
+                for (String version : versions) {
+                    String repositoryId = repositoryAttribution == null ? null
+                            : repositoryAttribution.getRepositoryId(artifact, version);
+                    json.writeNumber(repositoryIndexes.getOrDefault(repositoryId, -1));
+                }
+                json.writeEndArray();
+                json.writeStartArray();
+                for (String version : versions) {
+                    json.writeNumber(VersionUtils.isTheSameMinor(artifact.getVersion(), version) ? 1 : 0);
+                }
+                json.writeEndArray();
+                if (versionHistory != null) {
+                    json.writeStartArray();
+                    for (String version : versions) {
+                        json.writeString(FormattingReportBuilder.formatSince(versionHistory.getFirstSeen(
+                                artifact.getGroupId(), artifact.getArtifactId(), version)));
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write report data", e);
+        }
+        return writer.toString();
+    }
+
+    private static String loadTemplate() {
+        try (InputStream in = InteractiveReportBuilder.class.getResourceAsStream(TEMPLATE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing report template " + TEMPLATE);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read report template " + TEMPLATE, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.jboss.set.channel.cli.report;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.wildfly.channel.MavenArtifact;
+import org.wildfly.channel.Repository;
+
+import java.util.List;
+
+/**
+ * Format of the HTML report.
+ */
+public enum ReportFormat {
+
+    /**
+     * A static table, see {@link FormattingReportBuilder}.
+     */
+    STATIC,
+    /**
+     * Data rendered in the browser, for very large reports, see {@link InteractiveReportBuilder}.
+     */
+    INTERACTIVE;
+
+    /**
+     * @param versionHistory history providing the "Since" column of the report, or null
+     * @return the report HTML, or null if there are no upgrades
+     */
+    public String build(List<Repository> repositories, List<Pair<MavenArtifact, List<String>>> upgrades,
+                        RepositoryAttribution repositoryAttribution, VersionHistory versionHistory) {
+        return switch (this) {
+            case STATIC -> new FormattingReportBuilder()
+                    .withRepositories(repositories)
+                    .withUpgrades(upgrades)
+                    .withRepositoryAttribution(repositoryAttribution)
+                    .withVersionHistory(versionHistory)
+                    .build();
+            case INTERACTIVE -> new InteractiveReportBuilder()
+                    .withRepositories(repositories)
+                    .withUpgrades(upgrades)
+                    .withRepositoryAttribution(repositoryAttribution)
+                    .withVersionHistory(versionHistory)
+                    .build();
+        };
+    }
+}
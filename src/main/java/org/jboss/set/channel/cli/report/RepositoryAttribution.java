@@ -0,0 +1,83 @@
+package org.jboss.set.channel.cli.report;
+
+import org.wildfly.channel.MavenArtifact;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records which repository provides each reported version of an artifact.
+ * <p>
+ * Only the versions that appear in the report are supposed to be recorded. To keep the footprint small with large
+ * channels, version strings are interned (the same versions repeat across many artifacts) and repositories are
+ * stored as a byte index into the list of repository IDs, in plain arrays per artifact.
+ */
+public class RepositoryAttribution {
+
+    private static final int MAX_REPOSITORIES = 0xFF;
+
+    private final List<String> repositoryIds;
+    private final Map<String, String> internedVersions = new HashMap<>();
+    private final Map<MavenArtifact, Entry> entries = new HashMap<>();
+
+    public RepositoryAttribution(List<String> repositoryIds) {
+        if (repositoryIds.size() > MAX_REPOSITORIES) {
+            throw new IllegalArgumentException("Too many repositories: " + repositoryIds.size());
+        }
+        this.repositoryIds = List.copyOf(repositoryIds);
+    }
+
+    /**
+     * Records that given version of given artifact was provided by given repository. Unknown repository IDs are
+     * ignored.
+     */
+    public void record(MavenArtifact artifact, String version, String repositoryId) {
+        int index = repositoryIds.indexOf(repositoryId);
+        if (index < 0) {
+            return;
+        }
+        String interned = internedVersions.computeIfAbsent(version, v -> v);
+        entries.computeIfAbsent(artifact, a -> new Entry()).add(interned, (byte) index);
+    }
+
+    /**
+     * @return ID of the repository providing given version, or null if not known
+     */
+    public String getRepositoryId(MavenArtifact artifact, String version) {
+        Entry entry = entries.get(artifact);
+        if (entry == null) {
+            return null;
+        }
+        int index = entry.indexOf(version);
+        return index < 0 ? null : repositoryIds.get(Byte.toUnsignedInt(entry.repositories[index]));
+    }
+
+    private static class Entry {
+
+        private String[] versions = new String[0];
+        private byte[] repositories = new byte[0];
+
+        void add(String version, byte repository) {
+            int index = indexOf(version);
+            if (index >= 0) {
+                repositories[index] = repository;
+                return;
+            }
+            versions = Arrays.copyOf(versions, versions.length + 1);
+            repositories = Arrays.copyOf(repositories, repositories.length + 1);
+            versions[versions.length - 1] = version;
+            repositories[repositories.length - 1] = repository;
+        }
+
+        int indexOf(String version) {
+            for (int i = 0; i < versions.length; i++) {
+                if (versions[i].equals(version)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.MetadataTransferException;
+import org.eclipse.aether.version.Version;
+import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.index.VersionIndex;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves available versions of an artifact by querying all repositories concurrently.
+ * <p>
+ * A plain {@link VersionRangeRequest} with multiple repositories queries the repositories one after another, so a
+ * single slow repository delays every request. Here each repository is queried by a separate request, each request
+ * has to finish within given timeout, and a repository that keeps failing is skipped for a while (see
+ * {@link RepositoryCircuitBreaker}). Repositories with a {@link VersionIndex} are not queried at all, the index answers
+ * instead.
+ */
+public class ConcurrentVersionRangeResolver implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ConcurrentVersionRangeResolver.class);
+
+    private final RepositorySystem system;
+    private final RepositorySystemSession session;
+    private final List<RemoteRepository> repositories;
+    private final Duration timeout;
+    private final Map<String, RepositoryCircuitBreaker> circuitBreakers = new HashMap<>();
+    private final Map<String, VersionIndex> indexes = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public ConcurrentVersionRangeResolver(RepositorySystem system, RepositorySystemSession session,
+                                          List<RemoteRepository> repositories, Duration timeout,
+                                          int failureThreshold, Duration openDuration) {
+        this.system = system;
+        this.session = session;
+        this.repositories = repositories;
+        this.timeout = timeout;
+        for (RemoteRepository repository : repositories) {
+            circuitBreakers.put(repository.getId(),
+                    new RepositoryCircuitBreaker(repository.getId(), failureThreshold, openDuration));
+        }
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "version-resolver-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Answers the queries for given repository from given version index, instead of querying the repository.
+     */
+    public void useIndex(String repositoryId, VersionIndex index) {
+        indexes.put(repositoryId, index);
+    }
+
+    /**
+     * Queries all repositories for versions of given artifact.
+     *
+     * @param artifact artifact with the version range to resolve
+     * @return versions merged from all repositories that responded in time
+     */
+    public ResolvedVersions resolveVersionRange(Artifact artifact) throws RepositoryException, InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        final Set<String> unavailableRepositories = new LinkedHashSet<>();
+        final Map<RemoteRepository, Future<VersionRangeResult>> futures = new LinkedHashMap<>();
+        // Circuit breaker permits of the requests, indexed repositories are not tracked by the breakers
+        final Map<String, Long> permits = new HashMap<>();
+        for (RemoteRepository repository : repositories) {
+            final VersionIndex index = indexes.get(repository.getId());
+            if (index != null) {
+                // Resolved right away, failures are reported the same way as with a request
+                final FutureTask<VersionRangeResult> task = new FutureTask<>(() -> index.resolveVersionRange(
+                        new VersionRangeRequest(artifact, List.of(repository), null)));
+                task.run();
+                futures.put(repository, task);
+                continue;
+            }
+            final long permit = circuitBreakers.get(repository.getId()).allowRequest();
+            if (permit == RepositoryCircuitBreaker.REJECTED) {
+                unavailableRepositories.add(repository.getId());
+            } else {
+                permits.put(repository.getId(), permit);
+                futures.put(repository, executor.submit(() -> system.resolveVersionRange(session,
+                        new VersionRangeRequest(artifact, List.of(repository), null))));
+            }
+        }
+
+        // Repositories are processed in the given order, so that a version available in multiple repositories is
+        // attributed to the first one, same as with a single multi-repository request.
+        final Map<Version, String> repositoryIds = new HashMap<>();
+        try {
+            for (Map.Entry<RemoteRepository, Future<VersionRangeResult>> entry : futures.entrySet()) {
+                final String repositoryId = entry.getKey().getId();
+                final Long permit = permits.get(repositoryId);
+
+                VersionRangeResult result;
+                try {
+                    result = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    logger.debugf("Version resolution of %s in repository %s timed out", artifact, repositoryId);
+                    recordFailure(repositoryId, permit);
+                    unavailableRepositories.add(repositoryId);
+                    continue;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof VersionRangeResolutionException vrre) {
+                        // Invalid version range, the same would happen with any repository.
+                        throw vrre;
+                    }
+                    logger.debugf(e.getCause(), "Version resolution of %s in repository %s failed", artifact, repositoryId);
+                    recordFailure(repositoryId, permit);
+                    unavailableRepositories.add(repositoryId);
+                    continue;
+                }
+
+                Optional<Exception> failure = result.getExceptions().stream()
+                        .filter(ConcurrentVersionRangeResolver::isRepositoryFailure)
+                        .findFirst();
+                if (failure.isPresent()) {
+                    logger.debugf("Version resolution of %s in repository %s failed: %s", artifact, repositoryId,
+                            failure.get().getMessage());
+                    recordFailure(repositoryId, permit);
+                    unavailableRepositories.add(repositoryId);
+                    continue;
+                }
+
+                if (permit != null) {
+                    circuitBreakers.get(repositoryId).recordSuccess(permit);
+                }
+                for (Version version : result.getVersions()) {
+                    repositoryIds.putIfAbsent(version, repositoryId);
+                }
+            }
+        } catch (InterruptedException | RepositoryException e) {
+            futures.values().forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        final List<Version> versions = repositoryIds.keySet().stream()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        return new ResolvedVersions(versions, repositoryIds, unavailableRepositories);
+    }
+
+    private void recordFailure(String repositoryId, Long permit) {
+        if (permit != null) {
+            circuitBreakers.get(repositoryId).recordFailure(permit);
+        }
+    }
+
+    /**
+     * Missing metadata only means the repository doesn't contain the artifact, anything else is a repository failure.
+     */
+    private static boolean isRepositoryFailure(Exception e) {
+        return e instanceof MetadataTransferException && !(e instanceof MetadataNotFoundException);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package org.jboss.set.channel.cli.resolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules repeated polling of components, adapting the polling interval of each component to how often it changes.
+ * <p>
+ * A component starts with the minimal interval. Each poll that finds no change doubles the interval up to the maximal
+ * interval, so dormant components are polled rarely, and each poll that finds a change halves it, so actively
+ * released components are polled often.
+ */
+public class PollSchedule {
+
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final Map<String, Long> intervals = new HashMap<>();
+    private final PriorityQueue<Poll> queue = new PriorityQueue<>();
+
+    public PollSchedule(Duration minInterval, Duration maxInterval) {
+        this.minIntervalMillis = Math.max(1, minInterval.toMillis());
+        this.maxIntervalMillis = Math.max(minIntervalMillis, maxInterval.toMillis());
+    }
+
+    /**
+     * Adds a component, its first poll is due after the minimal interval.
+     */
+    public void add(String key, long nowMillis) {
+        intervals.put(key, minIntervalMillis);
+        queue.add(new Poll(key, nowMillis + minIntervalMillis));
+    }
+
+    /**
+     * @return time of the earliest scheduled poll, or {@link Long#MAX_VALUE} if nothing is scheduled
+     */
+    public long nextPollMillis() {
+        Poll next = queue.peek();
+        return next == null ? Long.MAX_VALUE : next.dueMillis();
+    }
+
+    /**
+     * Removes the components that are due for polling from the schedule. They are re-scheduled by
+     * {@link #record(String, boolean, long)}.
+     */
+    public List<String> takeDue(long nowMillis) {
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueMillis() <= nowMillis) {
+            due.add(queue.poll().key());
+        }
+        return due;
+    }
+
+    /**
+     * Records the result of a poll and schedules the next one.
+     *
+     * @param changed whether the component changed since the previous poll
+     */
+    public void record(String key, boolean changed, long nowMillis) {
+        long interval = intervals.getOrDefault(key, minIntervalMillis);
+        interval = changed ? Math.max(minIntervalMillis, interval / 2) : Math.min(maxIntervalMillis, interval * 2);
+        intervals.put(key, interval);
+        queue.add(new Poll(key, nowMillis + interval));
+    }
+
+    public Duration getInterval(String key) {
+        Long interval = intervals.get(key);
+        return interval == null ? null : Duration.ofMillis(interval);
+    }
+
+    private record Poll(String key, long dueMillis) implements Comparable<Poll> {
+        @Override
+        public int compareTo(Poll other) {
+            return Long.compare(dueMillis, other.dueMillis);
+        }
+    }
+}
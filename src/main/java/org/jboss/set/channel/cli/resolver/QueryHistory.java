@@ -0,0 +1,98 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers how long it took to query versions of each GA in previous runs.
+ * <p>
+ * The history is stored as a properties file mapping `groupId:artifactId` to a moving average of the query time in
+ * milliseconds.
+ */
+public class QueryHistory {
+
+    private static final Logger logger = Logger.getLogger(QueryHistory.class);
+
+    // Weight of the latest measurement in the moving average.
+    private static final double SMOOTHING = 0.5;
+
+    private final Path file;
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+
+    private QueryHistory(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the history from given file. A missing or unreadable file results in an empty history.
+     */
+    public static QueryHistory load(Path file) {
+        QueryHistory history = new QueryHistory(file);
+        if (file != null && Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                for (String ga : properties.stringPropertyNames()) {
+                    history.latencies.put(ga, Long.parseLong(properties.getProperty(ga)));
+                }
+            } catch (IOException | NumberFormatException e) {
+                logger.warnf("Failed to read query history from %s, starting with empty history: %s", file,
+                        e.getMessage());
+                history.latencies.clear();
+            }
+        }
+        return history;
+    }
+
+    /**
+     * @return an empty history that is not persisted
+     */
+    public static QueryHistory empty() {
+        return new QueryHistory(null);
+    }
+
+    public OptionalLong getLatency(String groupId, String artifactId) {
+        Long latency = latencies.get(key(groupId, artifactId));
+        return latency == null ? OptionalLong.empty() : OptionalLong.of(latency);
+    }
+
+    public void record(String groupId, String artifactId, long millis) {
+        latencies.merge(key(groupId, artifactId), millis,
+                (previous, latest) -> Math.round(previous * (1 - SMOOTHING) + latest * SMOOTHING));
+    }
+
+    /**
+     * Writes the history back to the file it was loaded from.
+     */
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : new TreeMap<>(latencies).entrySet()) {
+            sb.append(entry.getKey().replace(":", "\\:")).append('=').append(entry.getValue()).append('\n');
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+}
@@ -0,0 +1,110 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.wildfly.channel.Stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which streams need to be queried, and in which order.
+ * <ul>
+ *     <li>Streams are collapsed to unique GAs, because the resolution doesn't depend on the stream version.</li>
+ *     <li>GAs not matching the include / exclude filters are dropped, so they are never queried.</li>
+ *     <li>GAs that were slow in previous runs are queried first, so that they don't form the tail of the run.
+ *     GAs with similar query time are ordered by GA, so that requests for the same group, which share the same
+ *     repository directory, are sent together.</li>
+ * </ul>
+ * The queries are not grouped by repository: {@link ConcurrentVersionRangeResolver} sends the query of each GA to all
+ * the repositories at once, so every query involves every repository, and the load of each repository is bounded by
+ * the concurrency limits of the transport rather than by the query order.
+ * Filters are either `groupId` or `groupId:artifactId` patterns, where `*` matches any sequence of characters.
+ */
+public class QueryPlanner {
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+    private final QueryHistory history;
+
+    public QueryPlanner(List<String> includes, List<String> excludes, QueryHistory history) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+        this.history = history;
+    }
+
+    /**
+     * @return streams to be queried, one per GA, in the order they should be queried
+     */
+    public List<Stream> plan(Collection<Stream> streams) {
+        Map<String, Stream> uniqueGas = new LinkedHashMap<>();
+        streams.stream()
+                .sorted(Comparator.comparing(Stream::getGroupId)
+                        .thenComparing(Stream::getArtifactId)
+                        .thenComparing(s -> s.getVersion() == null ? "" : s.getVersion()))
+                .filter(this::accepts)
+                .forEach(s -> uniqueGas.putIfAbsent(s.getGroupId() + ":" + s.getArtifactId(), s));
+
+        List<Stream> plan = new ArrayList<>(uniqueGas.values());
+        ToLongFunction<Stream> latencyClass = latencyClassifier(plan);
+        // Stable sort, GA order is kept within a latency class.
+        plan.sort(Comparator.comparingLong(latencyClass).reversed());
+        return plan;
+    }
+
+    boolean accepts(Stream stream) {
+        return accepts(stream.getGroupId(), stream.getArtifactId());
+    }
+
+    /**
+     * @return whether the component passes the include and exclude filters
+     */
+    public boolean accepts(String groupId, String artifactId) {
+        String ga = groupId + ":" + artifactId;
+        if (!includes.isEmpty() && includes.stream().noneMatch(p -> p.matcher(ga).matches())) {
+            return false;
+        }
+        return excludes.stream().noneMatch(p -> p.matcher(ga).matches());
+    }
+
+    /**
+     * Latencies are compared by their order of magnitude (powers of two), GAs without history are assumed to take
+     * the average time.
+     */
+    private ToLongFunction<Stream> latencyClassifier(List<Stream> streams) {
+        long average = Math.round(streams.stream()
+                .map(s -> history.getLatency(s.getGroupId(), s.getArtifactId()))
+                .filter(OptionalLong::isPresent)
+                .mapToLong(OptionalLong::getAsLong)
+                .average()
+                .orElse(0));
+        return s -> {
+            long latency = history.getLatency(s.getGroupId(), s.getArtifactId()).orElse(average);
+            return 64 - Long.numberOfLeadingZeros(Math.max(0, latency));
+        };
+    }
+
+    private static List<Pattern> compile(List<String> filters) {
+        if (filters == null) {
+            return List.of();
+        }
+        return filters.stream()
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .map(f -> {
+                    // A bare groupId matches all artifacts of the group.
+                    String ga = f.contains(":") ? f : f + ":*";
+                    return Pattern.compile(Arrays.stream(ga.split("\\*", -1))
+                            .map(Pattern::quote)
+                            .collect(Collectors.joining(".*")));
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,108 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks failures of a single repository and stops sending requests to it once it keeps failing.
+ * <p>
+ * After given number of consecutive failures the breaker opens and no requests are allowed for the open duration.
+ * Then a single trial request is let through: if it succeeds the breaker closes again, otherwise it stays open for
+ * another open duration.
+ * <p>
+ * Each allowed request gets a permit, which has to be passed back with its outcome. The permits belong to a
+ * generation that changes whenever the breaker opens, closes or lets a trial request through, and outcomes of requests
+ * from an older generation are ignored. That way the requests that were already in flight when the breaker opened
+ * don't close it or prolong it, only the trial request does.
+ */
+public class RepositoryCircuitBreaker {
+
+    /**
+     * Returned by {@link #allowRequest()} when no request should be sent.
+     */
+    public static final long REJECTED = -1;
+
+    private static final Logger logger = Logger.getLogger(RepositoryCircuitBreaker.class);
+
+    private final String repositoryId;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private long generation;
+    private int consecutiveFailures;
+    private boolean open;
+    private long openedAt;
+
+    public RepositoryCircuitBreaker(String repositoryId, int failureThreshold, Duration openDuration) {
+        this(repositoryId, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    RepositoryCircuitBreaker(String repositoryId, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.repositoryId = repositoryId;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return permit for a request to the repository, or {@link #REJECTED} if no request should be sent
+     */
+    public synchronized long allowRequest() {
+        if (!open) {
+            return generation;
+        }
+        if (nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+            // A trial request that didn't report back within the open duration is abandoned, and a new one is allowed.
+            generation++;
+            openedAt = nanoClock.getAsLong();
+            return generation;
+        }
+        return REJECTED;
+    }
+
+    /**
+     * @param permit permit returned by {@link #allowRequest()} for the request that succeeded
+     */
+    public synchronized void recordSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (open) {
+            logger.infof("Repository %s is responding again", repositoryId);
+            open = false;
+            generation++;
+        }
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * @param permit permit returned by {@link #allowRequest()} for the request that failed
+     */
+    public synchronized void recordFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (open) {
+            // The trial request failed, keep the breaker open for another period.
+            openedAt = nanoClock.getAsLong();
+        } else if (consecutiveFailures >= failureThreshold) {
+            logger.warnf("Repository %s failed %d times in a row, it will not be queried for %d seconds",
+                    repositoryId, consecutiveFailures, Duration.ofNanos(openDurationNanos).toSeconds());
+            open = true;
+            openedAt = nanoClock.getAsLong();
+            generation++;
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    public String getRepositoryId() {
+        return repositoryId;
+    }
+}
@@ -0,0 +1,46 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.eclipse.aether.version.Version;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versions of a single artifact merged from multiple repositories.
+ */
+public class ResolvedVersions {
+
+    private final List<Version> versions;
+    private final Map<Version, String> repositoryIds;
+    private final Set<String> unavailableRepositories;
+
+    public ResolvedVersions(List<Version> versions, Map<Version, String> repositoryIds,
+                            Set<String> unavailableRepositories) {
+        this.versions = versions;
+        this.repositoryIds = repositoryIds;
+        this.unavailableRepositories = unavailableRepositories;
+    }
+
+    /**
+     * @return available versions, sorted from highest to lowest
+     */
+    public List<Version> getVersions() {
+        return versions;
+    }
+
+    /**
+     * @return ID of the first repository (in the order the repositories were given) that provides given version
+     */
+    public String getRepositoryId(Version version) {
+        return repositoryIds.get(version);
+    }
+
+    /**
+     * @return IDs of repositories that failed, timed out or were skipped because of an open circuit breaker
+     */
+    public Set<String> getUnavailableRepositories() {
+        return Collections.unmodifiableSet(unavailableRepositories);
+    }
+}
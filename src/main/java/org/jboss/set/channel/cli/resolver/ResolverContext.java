@@ -0,0 +1,121 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.wildfly.channel.Blocklist;
+import org.wildfly.channel.BlocklistCoordinate;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+import org.wildfly.channel.maven.ChannelCoordinate;
+import org.wildfly.channel.maven.VersionResolverFactory;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves channel metadata (channels, manifests and blocklists) for the duration of a single command execution.
+ * <p>
+ * A single {@link VersionResolverFactory} is shared, resolvers are created once per list of repositories, and resolved
+ * URLs as well as parsed objects are memoized by coordinate, so that the same metadata is never resolved twice.
+ */
+public class ResolverContext implements AutoCloseable {
+
+    private final VersionResolverFactory resolverFactory;
+    private final Map<String, MavenVersionsResolver> resolvers = new ConcurrentHashMap<>();
+    private final Map<String, URL> urls = new ConcurrentHashMap<>();
+    private final Map<URL, Channel> channels = new ConcurrentHashMap<>();
+    private final Map<URL, ChannelManifest> manifests = new ConcurrentHashMap<>();
+    private final Map<URL, Blocklist> blocklists = new ConcurrentHashMap<>();
+
+    public ResolverContext(RepositorySystem system, RepositorySystemSession session) {
+        this.resolverFactory = new VersionResolverFactory(system, session);
+    }
+
+    public VersionResolverFactory getResolverFactory() {
+        return resolverFactory;
+    }
+
+    /**
+     * @return URL of given metadata, for GAV coordinates this points to the local Maven repository
+     */
+    public URL resolveUrl(ChannelMetadataCoordinate coordinate, List<Repository> repositories) {
+        if (coordinate.getUrl() != null) {
+            return coordinate.getUrl();
+        }
+        return urls.computeIfAbsent(key(coordinate, repositories),
+                k -> getResolver(repositories).resolveChannelMetadata(List.of(coordinate)).get(0));
+    }
+
+    public Channel resolveChannel(ChannelCoordinate coordinate, List<Repository> repositories) {
+        return channels.computeIfAbsent(resolveUrl(coordinate, repositories), ChannelMapper::from);
+    }
+
+    public ChannelManifest resolveManifest(ChannelManifestCoordinate coordinate, List<Repository> repositories) {
+        return manifests.computeIfAbsent(resolveUrl(coordinate, repositories), ChannelManifestMapper::from);
+    }
+
+    public Blocklist resolveBlocklist(BlocklistCoordinate coordinate, List<Repository> repositories) {
+        return blocklists.computeIfAbsent(resolveUrl(coordinate, repositories), Blocklist::from);
+    }
+
+    /**
+     * @return repositories where the manifest and the blocklist of given channel are looked for: the given repositories
+     * first, then the repositories of the channel
+     */
+    public static List<Repository> metadataRepositories(Channel channel, List<Repository> repositories) {
+        List<Repository> metadataRepositories = new ArrayList<>(repositories);
+        metadataRepositories.addAll(channel.getRepositories());
+        return metadataRepositories;
+    }
+
+    /**
+     * @return streams of manifests of all given channels, the manifests are resolved from the channel repositories
+     */
+    public Set<Stream> resolveStreams(List<Channel> channels) {
+        List<Repository> repositories = channels.stream()
+                .flatMap(channel -> channel.getRepositories().stream()).toList();
+        return channels.stream()
+                .map(channel -> resolveManifest(channel.getManifestCoordinate(), repositories))
+                .flatMap(manifest -> manifest.getStreams().stream())
+                .collect(Collectors.toSet());
+    }
+
+    private MavenVersionsResolver getResolver(List<Repository> repositories) {
+        return resolvers.computeIfAbsent(key(repositories), k -> resolverFactory.create(repositories));
+    }
+
+    @Override
+    public void close() {
+        resolvers.values().forEach(MavenVersionsResolver::close);
+        resolvers.clear();
+        resolverFactory.close();
+    }
+
+    private static String key(ChannelMetadataCoordinate coordinate, List<Repository> repositories) {
+        return coordinate.getClass().getSimpleName() + ":" + coordinate.getGroupId() + ":" + coordinate.getArtifactId()
+                + ":" + coordinate.getVersion() + ":" + coordinate.getClassifier() + ":" + coordinate.getExtension()
+                + "@" + key(repositories);
+    }
+
+    private static String key(Collection<Repository> repositories) {
+        Set<String> urls = new LinkedHashSet<>();
+        for (Repository repository : repositories) {
+            urls.add(repository.getId() + "::" + repository.getUrl());
+        }
+        return String.join(",", urls);
+    }
+}
@@ -0,0 +1,42 @@
+package org.jboss.set.channel.cli.results;
+
+/**
+ * One of N disjoint slices of the channel streams. Streams are assigned to shards by a hash of their groupId and
+ * artifactId, so that every run assigns a stream to the same shard.
+ *
+ * @param index shard index, starting with 1
+ * @param count total number of shards
+ */
+public record Shard(int index, int count) {
+
+    public Shard {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+        }
+    }
+
+    /**
+     * Parses the shard specification in the "index/count" format, e.g. "1/4".
+     */
+    public static Shard parse(String value) {
+        String[] parts = value.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid shard, expected format is index/count: " + value);
+        }
+        try {
+            return new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid shard, expected format is index/count: " + value);
+        }
+    }
+
+    public boolean contains(String groupId, String artifactId) {
+        // String hash codes are specified, so the assignment is the same on every JVM.
+        return Math.floorMod((groupId + ":" + artifactId).hashCode(), count) == index - 1;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
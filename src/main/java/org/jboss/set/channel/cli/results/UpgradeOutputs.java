@@ -0,0 +1,122 @@
+package org.jboss.set.channel.cli.results;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.jboss.set.channel.cli.report.ReportFormat;
+import org.jboss.set.channel.cli.report.RepositoryAttribution;
+import org.jboss.set.channel.cli.utils.ConcurrencyUtils;
+import org.jboss.set.channel.cli.utils.IOUtils;
+import org.wildfly.channel.MavenArtifact;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the report and the manifest files of the find-upgrades command from {@link UpgradeResults}.
+ */
+public final class UpgradeOutputs {
+
+    private static final Logger logger = Logger.getLogger(UpgradeOutputs.class);
+
+    public static final Path REPORT_FILE = Path.of("report.html");
+    public static final Path DIFF_MANIFEST_FILE = Path.of("diff-manifest.yaml");
+    public static final Path UPGRADED_MANIFEST_FILE = Path.of("upgraded-manifest.yaml");
+
+    private UpgradeOutputs() {
+    }
+
+    /**
+     * Writes the report, the manifest containing only upgraded streams, and the manifest containing all streams with
+     * upgraded versions. Nothing is written if there are no upgrades.
+     *
+     * @param versionHistory history providing the "Since" column of the report, or null
+     */
+    public static void write(UpgradeResults results, Path outputDirectory, ReportFormat reportFormat,
+                             VersionHistory versionHistory) throws Exception {
+        if (results.getUpgrades().isEmpty()) {
+            // Don't write the report file if the report is empty.
+            return;
+        }
+
+        // The outputs are independent of each other, render and write them in parallel.
+        final ExecutorService writers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> writes = List.of(
+                    writers.submit(() -> {
+                        writeReportFile(results, outputDirectory.resolve(REPORT_FILE), reportFormat, versionHistory);
+                        return null;
+                    }),
+                    // Write manifest file that contains only upgraded components
+                    writers.submit(() -> {
+                        IOUtils.writeManifestFile(outputDirectory.resolve(DIFF_MANIFEST_FILE), diffStreams(results));
+                        return null;
+                    }),
+                    // Write manifest file that contains both original and upgraded components
+                    writers.submit(() -> {
+                        IOUtils.writeManifestFile(outputDirectory.resolve(UPGRADED_MANIFEST_FILE),
+                                upgradedStreams(results));
+                        return null;
+                    }));
+            for (Future<?> write : writes) {
+                ConcurrencyUtils.getResult(write);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private static void writeReportFile(UpgradeResults results, Path reportFile, ReportFormat reportFormat,
+                                        VersionHistory versionHistory) throws Exception {
+        List<Pair<MavenArtifact, List<String>>> upgrades = new ArrayList<>(results.getUpgrades().size());
+        RepositoryAttribution repositoryAttribution = new RepositoryAttribution(
+                results.getRepositories().stream().map(Repository::getId).toList());
+        for (UpgradeResults.ComponentUpgrade upgrade : results.getUpgrades()) {
+            MavenArtifact artifact = new MavenArtifact(upgrade.groupId(), upgrade.artifactId(), "pom", null,
+                    upgrade.version(), null);
+            upgrades.add(Pair.of(artifact, upgrade.versions()));
+            for (int i = 0; i < upgrade.versions().size(); i++) {
+                repositoryAttribution.record(artifact, upgrade.versions().get(i), upgrade.repositoryIds().get(i));
+            }
+        }
+
+        String reportHtml = reportFormat.build(results.getRepositories(), upgrades, repositoryAttribution,
+                versionHistory);
+
+        logger.infof("Writing report file into %s", reportFile.toString());
+        IOUtils.writeIfChanged(reportFile, reportHtml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return streams of the manifest containing only the upgraded components, with their new versions
+     */
+    public static List<Stream> diffStreams(UpgradeResults results) {
+        return results.getUpgrades().stream()
+                .filter(u -> u.manifestVersion() != null)
+                .map(u -> new Stream(u.groupId(), u.artifactId(), u.manifestVersion()))
+                .toList();
+    }
+
+    static List<Stream> upgradedStreams(UpgradeResults results) {
+        final Map<String, Stream> streams = new LinkedHashMap<>();
+        for (Stream stream : results.getStreams()) {
+            streams.putIfAbsent(stream.getGroupId() + ":" + stream.getArtifactId(), stream);
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : results.getUpgrades()) {
+            if (upgrade.manifestVersion() != null) {
+                streams.computeIfPresent(upgrade.groupId() + ":" + upgrade.artifactId(),
+                        (key, original) -> new Stream(upgrade.groupId(), upgrade.artifactId(), upgrade.manifestVersion()));
+            }
+        }
+        return new ArrayList<>(streams.values());
+    }
+}
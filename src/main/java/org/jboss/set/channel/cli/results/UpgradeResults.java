@@ -0,0 +1,163 @@
+package org.jboss.set.channel.cli.results;
+
+import org.jboss.set.channel.cli.filter.VersionFilter;
+import org.jboss.set.channel.cli.utils.IOUtils;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Upgrades found by the find-upgrades command, together with everything needed to render the report and the manifests
+ * later, or in another process.
+ */
+public class UpgradeResults {
+
+    private static final Comparator<ComponentUpgrade> UPGRADE_ORDER = Comparator
+            .comparing(ComponentUpgrade::groupId)
+            .thenComparing(ComponentUpgrade::artifactId)
+            .thenComparing(ComponentUpgrade::version);
+
+    private final List<Repository> repositories;
+    private final List<Stream> streams;
+    private final List<ComponentUpgrade> upgrades;
+    private final Shard shard;
+
+    /**
+     * @param repositories repositories that were searched for upgrades
+     * @param streams channel streams covered by the results, including the streams that were not checked
+     * @param upgrades upgrades found for the streams
+     * @param shard the shard of channel streams covered by the results, or null if all streams are covered
+     */
+    public UpgradeResults(List<Repository> repositories, List<Stream> streams, List<ComponentUpgrade> upgrades,
+                          Shard shard) {
+        this.repositories = List.copyOf(repositories);
+        this.streams = streams.stream().sorted(IOUtils.STREAM_ORDER).toList();
+        this.upgrades = upgrades.stream().sorted(UPGRADE_ORDER).toList();
+        this.shard = shard;
+    }
+
+    /**
+     * Combines results of all shards of a channel into results covering the whole channel.
+     */
+    public static UpgradeResults merge(List<UpgradeResults> parts) {
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("No results to merge");
+        }
+        final List<Repository> repositories = parts.get(0).getRepositories();
+        final TreeSet<Integer> shardIndexes = new TreeSet<>();
+        int shardCount = 0;
+        for (UpgradeResults part : parts) {
+            if (!sameRepositories(repositories, part.getRepositories())) {
+                throw new IllegalArgumentException("Results were produced with different repositories");
+            }
+            if (part.getShard() == null) {
+                throw new IllegalArgumentException("Only results of sharded runs can be merged");
+            }
+            if (shardCount != 0 && shardCount != part.getShard().count()) {
+                throw new IllegalArgumentException("Results were produced with different number of shards");
+            }
+            shardCount = part.getShard().count();
+            if (!shardIndexes.add(part.getShard().index())) {
+                throw new IllegalArgumentException("Duplicate results of shard " + part.getShard());
+            }
+        }
+        if (shardIndexes.size() != shardCount) {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 1; i <= shardCount; i++) {
+                if (!shardIndexes.contains(i)) {
+                    missing.add(i);
+                }
+            }
+            throw new IllegalArgumentException("Missing results of shards " + missing + " out of " + shardCount);
+        }
+
+        final Map<String, Stream> streams = new LinkedHashMap<>();
+        final Map<String, ComponentUpgrade> upgrades = new LinkedHashMap<>();
+        for (UpgradeResults part : parts) {
+            part.getStreams().forEach(s -> streams.putIfAbsent(s.getGroupId() + ":" + s.getArtifactId(), s));
+            part.getUpgrades().forEach(u -> upgrades.putIfAbsent(u.groupId() + ":" + u.artifactId(), u));
+        }
+        return new UpgradeResults(repositories, new ArrayList<>(streams.values()), new ArrayList<>(upgrades.values()),
+                null);
+    }
+
+    /**
+     * Narrows the results down to the upgrades of accepted components, and the accepted versions. Upgrades without any
+     * accepted version are dropped, the streams are kept as they are.
+     *
+     * @param componentFilter accepts groupId and artifactId of the components to keep
+     * @param versionFilter versions to keep
+     */
+    public UpgradeResults filter(BiPredicate<String, String> componentFilter, VersionFilter versionFilter) {
+        final List<ComponentUpgrade> filtered = new ArrayList<>();
+        for (ComponentUpgrade upgrade : upgrades) {
+            if (!componentFilter.test(upgrade.groupId(), upgrade.artifactId())) {
+                continue;
+            }
+            final Predicate<String> accepted = versionFilter.forComponent(upgrade.groupId(), upgrade.artifactId());
+            final List<String> versions = new ArrayList<>();
+            final List<String> repositoryIds = new ArrayList<>();
+            for (int i = 0; i < upgrade.versions().size(); i++) {
+                if (accepted.test(upgrade.versions().get(i))) {
+                    versions.add(upgrade.versions().get(i));
+                    repositoryIds.add(upgrade.repositoryIds().get(i));
+                }
+            }
+            if (!versions.isEmpty()) {
+                String manifestVersion = upgrade.manifestVersion() != null && accepted.test(upgrade.manifestVersion())
+                        ? upgrade.manifestVersion() : null;
+                filtered.add(new ComponentUpgrade(upgrade.groupId(), upgrade.artifactId(), upgrade.version(),
+                        versions, repositoryIds, manifestVersion));
+            }
+        }
+        return new UpgradeResults(repositories, streams, filtered, shard);
+    }
+
+    private static boolean sameRepositories(List<Repository> first, List<Repository> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (!Objects.equals(first.get(i).getId(), second.get(i).getId())
+                    || !Objects.equals(first.get(i).getUrl(), second.get(i).getUrl())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Repository> getRepositories() {
+        return repositories;
+    }
+
+    public List<Stream> getStreams() {
+        return streams;
+    }
+
+    public List<ComponentUpgrade> getUpgrades() {
+        return upgrades;
+    }
+
+    public Shard getShard() {
+        return shard;
+    }
+
+    /**
+     * @param version channel version of the component
+     * @param versions versions reported as possible upgrades
+     * @param repositoryIds repositories providing the reported versions, in the same order
+     * @param manifestVersion version chosen by the upgrade policy for the generated manifests, or null
+     */
+    public record ComponentUpgrade(String groupId, String artifactId, String version, List<String> versions,
+                                   List<String> repositoryIds, String manifestVersion) {
+    }
+}
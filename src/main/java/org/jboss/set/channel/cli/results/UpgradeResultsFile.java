@@ -0,0 +1,270 @@
+package org.jboss.set.channel.cli.results;
+
+import org.jboss.logging.Logger;
+import org.jboss.set.channel.cli.utils.IOUtils;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes {@link UpgradeResults} files.
+ * <p>
+ * The file is a compact binary format: a magic number and a format version, a table of all distinct strings, and
+ * the repositories, streams and upgrades stored column by column as variable-length indexes into the string table.
+ * Group IDs, versions and repository IDs repeat across many components, so each of them is stored only once.
+ */
+public final class UpgradeResultsFile {
+
+    private static final Logger logger = Logger.getLogger(UpgradeResultsFile.class);
+
+    private static final byte[] MAGIC = "WCUR".getBytes(StandardCharsets.US_ASCII);
+    static final int FORMAT_VERSION = 1;
+
+    private UpgradeResultsFile() {
+    }
+
+    /**
+     * @return name of the results file written by find-upgrades, for given shard or for the whole channel
+     */
+    public static String fileName(Shard shard) {
+        return shard == null ? "upgrade-results.bin"
+                : "upgrade-results-" + shard.index() + "-of-" + shard.count() + ".bin";
+    }
+
+    public static void write(Path file, UpgradeResults results) throws IOException {
+        logger.infof("Writing upgrade results into %s", file.toString());
+        IOUtils.writeIfChanged(file, encode(results));
+    }
+
+    public static UpgradeResults read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return decode(in);
+        } catch (EOFException e) {
+            throw new IOException("Truncated upgrade results file " + file, e);
+        }
+    }
+
+    static byte[] encode(UpgradeResults results) throws IOException {
+        final StringTable strings = new StringTable();
+        final List<Repository> repositories = results.getRepositories();
+        final List<Stream> streams = results.getStreams();
+        final List<UpgradeResults.ComponentUpgrade> upgrades = results.getUpgrades();
+        final Map<String, Integer> repositoryIndexes = new HashMap<>();
+        for (int i = 0; i < repositories.size(); i++) {
+            repositoryIndexes.putIfAbsent(repositories.get(i).getId(), i);
+        }
+
+        // The body is encoded first, so that the string table is complete when it's written in front of it.
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(body);
+        final Shard shard = results.getShard();
+        writeVarInt(out, shard == null ? 0 : shard.index());
+        writeVarInt(out, shard == null ? 0 : shard.count());
+
+        writeVarInt(out, repositories.size());
+        for (Repository repository : repositories) {
+            writeVarInt(out, strings.index(repository.getId()));
+            writeVarInt(out, strings.index(repository.getUrl()));
+        }
+
+        writeVarInt(out, streams.size());
+        for (Stream stream : streams) {
+            writeVarInt(out, strings.index(stream.getGroupId()));
+        }
+        for (Stream stream : streams) {
+            writeVarInt(out, strings.index(stream.getArtifactId()));
+        }
+        for (Stream stream : streams) {
+            writeVarInt(out, strings.index(stream.getVersion()));
+        }
+        for (Stream stream : streams) {
+            writeVarInt(out, strings.index(stream.getVersionPattern() == null ? null
+                    : stream.getVersionPattern().pattern()));
+        }
+
+        writeVarInt(out, upgrades.size());
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            writeVarInt(out, strings.index(upgrade.groupId()));
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            writeVarInt(out, strings.index(upgrade.artifactId()));
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            writeVarInt(out, strings.index(upgrade.version()));
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            writeVarInt(out, strings.index(upgrade.manifestVersion()));
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            writeVarInt(out, upgrade.versions().size());
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            for (String version : upgrade.versions()) {
+                writeVarInt(out, strings.index(version));
+            }
+        }
+        for (UpgradeResults.ComponentUpgrade upgrade : upgrades) {
+            for (String repositoryId : upgrade.repositoryIds()) {
+                // Zero stands for an unknown repository
+                Integer index = repositoryId == null ? null : repositoryIndexes.get(repositoryId);
+                writeVarInt(out, index == null ? 0 : index + 1);
+            }
+        }
+        out.flush();
+
+        final ByteArrayOutputStream file = new ByteArrayOutputStream(body.size() + strings.size() * 16);
+        final DataOutputStream header = new DataOutputStream(file);
+        header.write(MAGIC);
+        writeVarInt(header, FORMAT_VERSION);
+        writeVarInt(header, strings.size());
+        for (String string : strings.values()) {
+            header.writeUTF(string);
+        }
+        header.flush();
+        body.writeTo(file);
+        return file.toByteArray();
+    }
+
+    static UpgradeResults decode(DataInputStream in) throws IOException {
+        final byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an upgrade results file");
+        }
+        final int formatVersion = readVarInt(in);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported upgrade results format version " + formatVersion);
+        }
+
+        final String[] strings = new String[readVarInt(in) + 1];
+        // Index zero stands for null
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        final int shardIndex = readVarInt(in);
+        final int shardCount = readVarInt(in);
+        final Shard shard = shardCount == 0 ? null : new Shard(shardIndex, shardCount);
+
+        final int repositoryCount = readVarInt(in);
+        final List<Repository> repositories = new ArrayList<>(repositoryCount);
+        for (int i = 0; i < repositoryCount; i++) {
+            repositories.add(new Repository(string(strings, in), string(strings, in)));
+        }
+
+        final int streamCount = readVarInt(in);
+        final String[] groupIds = readColumn(in, strings, streamCount);
+        final String[] artifactIds = readColumn(in, strings, streamCount);
+        final String[] versions = readColumn(in, strings, streamCount);
+        final String[] versionPatterns = readColumn(in, strings, streamCount);
+        final List<Stream> streams = new ArrayList<>(streamCount);
+        for (int i = 0; i < streamCount; i++) {
+            streams.add(versions[i] != null ? new Stream(groupIds[i], artifactIds[i], versions[i])
+                    : new Stream(groupIds[i], artifactIds[i], Pattern.compile(versionPatterns[i])));
+        }
+
+        final int upgradeCount = readVarInt(in);
+        final String[] upgradeGroupIds = readColumn(in, strings, upgradeCount);
+        final String[] upgradeArtifactIds = readColumn(in, strings, upgradeCount);
+        final String[] baseVersions = readColumn(in, strings, upgradeCount);
+        final String[] manifestVersions = readColumn(in, strings, upgradeCount);
+        final int[] versionCounts = new int[upgradeCount];
+        for (int i = 0; i < upgradeCount; i++) {
+            versionCounts[i] = readVarInt(in);
+        }
+        final List<List<String>> upgradeVersions = new ArrayList<>(upgradeCount);
+        for (int i = 0; i < upgradeCount; i++) {
+            upgradeVersions.add(Arrays.asList(readColumn(in, strings, versionCounts[i])));
+        }
+        final List<UpgradeResults.ComponentUpgrade> upgrades = new ArrayList<>(upgradeCount);
+        for (int i = 0; i < upgradeCount; i++) {
+            String[] repositoryIds = new String[versionCounts[i]];
+            for (int j = 0; j < repositoryIds.length; j++) {
+                int index = readVarInt(in);
+                repositoryIds[j] = index == 0 ? null : repositories.get(index - 1).getId();
+            }
+            upgrades.add(new UpgradeResults.ComponentUpgrade(upgradeGroupIds[i], upgradeArtifactIds[i],
+                    baseVersions[i], List.copyOf(upgradeVersions.get(i)), Arrays.asList(repositoryIds),
+                    manifestVersions[i]));
+        }
+
+        return new UpgradeResults(repositories, streams, upgrades, shard);
+    }
+
+    private static String[] readColumn(DataInputStream in, String[] strings, int size) throws IOException {
+        String[] column = new String[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = string(strings, in);
+        }
+        return column;
+    }
+
+    private static String string(String[] strings, DataInputStream in) throws IOException {
+        int index = readVarInt(in);
+        if (index >= strings.length) {
+            throw new IOException("Invalid string index " + index);
+        }
+        return strings[index];
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Assigns indexes to distinct strings in the order they are first seen. Index zero stands for null.
+     */
+    private static class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int index(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return indexes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size();
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        List<String> values() {
+            return values;
+        }
+    }
+}
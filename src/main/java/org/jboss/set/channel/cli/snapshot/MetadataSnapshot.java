@@ -0,0 +1,200 @@
+package org.jboss.set.channel.cli.snapshot;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Snapshot archive of all the metadata a command fetched, that allows to repeat the command offline.
+ * <p>
+ * The Maven based commands use a fresh temporary local repository for every run, so after the run the local
+ * repository contains exactly the repository metadata, POMs and channel files that were resolved via Maven. The
+ * snapshot archive contains a copy of that local repository, plus the content of all channel, manifest and blocklist
+ * files referenced by URL.
+ * <p>
+ * When replaying, the local repository is restored from the archive (the session then has to be switched to offline
+ * mode) and URLs are redirected to the archived content via {@link #localize(URL)}.
+ */
+public class MetadataSnapshot implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(MetadataSnapshot.class);
+
+    private static final String FORMAT_VERSION = "1";
+    private static final String SNAPSHOT_PROPERTIES_ENTRY = "snapshot.properties";
+    private static final String URLS_PROPERTIES_ENTRY = "urls.properties";
+    private static final String LOCAL_REPOSITORY_PREFIX = "local-repository/";
+    private static final String URLS_PREFIX = "urls/";
+    private static final String FORMAT_VERSION_PROPERTY = "format-version";
+
+    private final boolean recording;
+    private final Path archive;
+    private final Path localRepository;
+    private final Path urlsDirectory;
+    private final Properties urls = new Properties();
+
+    private MetadataSnapshot(boolean recording, Path archive, Path localRepository) throws IOException {
+        this.recording = recording;
+        this.archive = archive;
+        this.localRepository = localRepository;
+        this.urlsDirectory = Files.createTempDirectory("metadata-snapshot-");
+    }
+
+    /**
+     * Starts recording a new snapshot. The archive is written when the snapshot is closed.
+     *
+     * @param archive snapshot archive to be written
+     * @param localRepository local repository used by the command, it's expected to be empty at this point
+     */
+    public static MetadataSnapshot record(Path archive, Path localRepository) throws IOException {
+        return new MetadataSnapshot(true, archive, localRepository);
+    }
+
+    /**
+     * Restores the content of given snapshot archive.
+     *
+     * @param archive snapshot archive to be read
+     * @param localRepository local repository used by the command, the archived repository content is copied there
+     */
+    public static MetadataSnapshot replay(Path archive, Path localRepository) throws IOException {
+        MetadataSnapshot snapshot = new MetadataSnapshot(false, archive, localRepository);
+        snapshot.extract();
+        return snapshot;
+    }
+
+    public boolean isReplaying() {
+        return !recording;
+    }
+
+    /**
+     * Returns URL pointing to a local copy of the resource behind given URL.
+     * <p>
+     * When recording, the resource is downloaded and stored in the snapshot. When replaying, the resource content is
+     * taken from the snapshot.
+     */
+    public synchronized URL localize(URL url) throws IOException {
+        final String key = url.toExternalForm();
+        String fileName = urls.getProperty(key);
+        if (fileName == null) {
+            if (!recording) {
+                throw new IOException("Resource " + key + " is not present in the snapshot " + archive);
+            }
+            fileName = String.valueOf(urls.size());
+            try (InputStream is = url.openStream()) {
+                Files.copy(is, urlsDirectory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+            }
+            urls.setProperty(key, fileName);
+        }
+        return urlsDirectory.resolve(fileName).toUri().toURL();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (recording) {
+                write();
+            }
+        } finally {
+            deleteRecursively(urlsDirectory);
+        }
+    }
+
+    private void write() throws IOException {
+        logger.infof("Writing metadata snapshot into %s", archive);
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zos.setLevel(Deflater.BEST_COMPRESSION);
+
+            Properties snapshotProperties = new Properties();
+            snapshotProperties.setProperty(FORMAT_VERSION_PROPERTY, FORMAT_VERSION);
+            zos.putNextEntry(new ZipEntry(SNAPSHOT_PROPERTIES_ENTRY));
+            snapshotProperties.store(zos, null);
+            zos.closeEntry();
+
+            zos.putNextEntry(new ZipEntry(URLS_PROPERTIES_ENTRY));
+            urls.store(zos, null);
+            zos.closeEntry();
+
+            writeDirectory(zos, urlsDirectory, URLS_PREFIX);
+            writeDirectory(zos, localRepository, LOCAL_REPOSITORY_PREFIX);
+        }
+    }
+
+    private static void writeDirectory(ZipOutputStream zos, Path directory, String prefix) throws IOException {
+        final List<Path> files;
+        try (java.util.stream.Stream<Path> stream = Files.walk(directory)) {
+            files = stream.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = prefix + directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            zos.putNextEntry(new ZipEntry(name));
+            Files.copy(file, zos);
+            zos.closeEntry();
+        }
+    }
+
+    private void extract() throws IOException {
+        boolean formatChecked = false;
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                final String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (SNAPSHOT_PROPERTIES_ENTRY.equals(name)) {
+                    Properties snapshotProperties = new Properties();
+                    snapshotProperties.load(zis);
+                    String formatVersion = snapshotProperties.getProperty(FORMAT_VERSION_PROPERTY);
+                    if (!FORMAT_VERSION.equals(formatVersion)) {
+                        throw new IOException("Unsupported snapshot format version: " + formatVersion);
+                    }
+                    formatChecked = true;
+                } else if (URLS_PROPERTIES_ENTRY.equals(name)) {
+                    urls.load(zis);
+                } else if (name.startsWith(URLS_PREFIX)) {
+                    copyEntry(zis, urlsDirectory, name.substring(URLS_PREFIX.length()));
+                } else if (name.startsWith(LOCAL_REPOSITORY_PREFIX)) {
+                    copyEntry(zis, localRepository, name.substring(LOCAL_REPOSITORY_PREFIX.length()));
+                }
+            }
+        }
+        if (!formatChecked) {
+            throw new IOException("File " + archive + " is not a metadata snapshot");
+        }
+    }
+
+    private static void copyEntry(InputStream is, Path targetDirectory, String relativePath) throws IOException {
+        final Path target = targetDirectory.resolve(relativePath).normalize();
+        if (!target.startsWith(targetDirectory)) {
+            throw new IOException("Invalid snapshot entry: " + relativePath);
+        }
+        Files.createDirectories(target.getParent());
+        try (OutputStream os = Files.newOutputStream(target)) {
+            is.transferTo(os);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (java.util.stream.Stream<Path> stream = Files.walk(directory)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
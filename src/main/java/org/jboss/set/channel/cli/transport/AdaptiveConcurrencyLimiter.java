@@ -0,0 +1,118 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Limits the number of in-flight requests to a single repository, adapting the limit to how the repository behaves.
+ * <p>
+ * The limit follows the AIMD scheme: it grows by one while requests succeed with latency close to the lowest latency
+ * observed, it shrinks gently when latency grows (the repository starts queueing requests), and it's cut in half when
+ * the repository signals overload (HTTP 429 or 503, timeouts).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = Logger.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // Latency up to this multiple of the baseline latency is considered healthy.
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+    // The baseline latency is re-evaluated after this many samples, so that it can follow a slower network.
+    private static final int BASELINE_WINDOW = 250;
+
+    public enum Outcome {
+        /**
+         * The request succeeded.
+         */
+        SUCCESS,
+        /**
+         * The repository is overloaded or throttling the client.
+         */
+        OVERLOAD,
+        /**
+         * The request failed for a reason unrelated to the repository load (e.g. not found), latency is not considered.
+         */
+        IGNORE
+    }
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private int inFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int maxLimit) {
+        this.name = name;
+        this.minLimit = 1;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(initialLimit, this.maxLimit));
+    }
+
+    /**
+     * Blocks until a request can be sent.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Records the outcome of a request previously allowed by {@link #acquire()}.
+     *
+     * @param latencyNanos how long the request took
+     * @param outcome request outcome
+     */
+    public synchronized void release(long latencyNanos, Outcome outcome) {
+        final int previousLimit = (int) limit;
+        final boolean utilized = inFlight * 2 >= limit;
+        inFlight--;
+
+        switch (outcome) {
+            case OVERLOAD -> limit = Math.max(minLimit, limit * OVERLOAD_BACKOFF_RATIO);
+            case SUCCESS -> {
+                updateBaseline(latencyNanos);
+                if (latencyNanos > baselineNanos * LATENCY_TOLERANCE) {
+                    limit = Math.max(minLimit, limit * LATENCY_BACKOFF_RATIO);
+                } else if (utilized) {
+                    // Only grow when the current limit is actually being used.
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+            }
+            case IGNORE -> {
+            }
+        }
+
+        if ((int) limit != previousLimit) {
+            logger.debugf("Concurrency limit for repository %s changed from %d to %d", name, previousLimit, (int) limit);
+        }
+        notifyAll();
+    }
+
+    private void updateBaseline(long latencyNanos) {
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,90 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.apache.http.client.HttpResponseException;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.PeekTask;
+import org.eclipse.aether.spi.connector.transport.PutTask;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+
+/**
+ * Transporter acquiring a permit from the repository's {@link AdaptiveConcurrencyLimiter} for each request.
+ *
+ * @see ConcurrencyLimitingTransporterFactory
+ */
+final class ConcurrencyLimitingTransporter implements Transporter {
+
+    private final Transporter delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    ConcurrencyLimitingTransporter(Transporter delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public int classify(Throwable error) {
+        return delegate.classify(error);
+    }
+
+    @Override
+    public void peek(PeekTask task) throws Exception {
+        execute(() -> delegate.peek(task));
+    }
+
+    @Override
+    public void get(GetTask task) throws Exception {
+        execute(() -> delegate.get(task));
+    }
+
+    @Override
+    public void put(PutTask task) throws Exception {
+        execute(() -> delegate.put(task));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void execute(Request request) throws Exception {
+        limiter.acquire();
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORE;
+        long start = System.nanoTime();
+        try {
+            request.execute();
+            outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+        } catch (Exception e) {
+            if (isOverload(e)) {
+                outcome = AdaptiveConcurrencyLimiter.Outcome.OVERLOAD;
+            }
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    static boolean isOverload(Throwable error) {
+        if (error instanceof SocketTimeoutException || error instanceof HttpTimeoutException) {
+            return true;
+        }
+        int statusCode = -1;
+        if (error instanceof HttpStatusException e) {
+            statusCode = e.getStatusCode();
+        } else if (error instanceof HttpResponseException e) {
+            statusCode = e.getStatusCode();
+        }
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void execute() throws Exception;
+    }
+}
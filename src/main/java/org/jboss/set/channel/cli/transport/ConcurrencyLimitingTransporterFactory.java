@@ -0,0 +1,58 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.transfer.NoTransporterException;
+import org.eclipse.aether.util.ConfigUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorates a transporter factory, so that requests to each repository go through an
+ * {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Limiters are kept per repository URL for the lifetime of the factory, so that the learned limit survives the
+ * transporters, which the resolver creates for pretty much every resolution request. The URL is used rather than the
+ * repository ID, because unnamed repositories get generated IDs (repo-0, repo-1, ...) that are reused for unrelated
+ * repositories, e.g. channel repositories and upgrade repositories. The upper bound of the limit is
+ * given by the {@value #MAX_CONCURRENT_REQUESTS_PROPERTY} session configuration property.
+ */
+public class ConcurrencyLimitingTransporterFactory implements TransporterFactory {
+
+    public static final String MAX_CONCURRENT_REQUESTS_PROPERTY = "wildfly-channel-cli.max-concurrent-requests";
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 32;
+
+    private static final int INITIAL_LIMIT = 4;
+
+    private final TransporterFactory delegate;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitingTransporterFactory(TransporterFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Transporter newInstance(RepositorySystemSession session, RemoteRepository repository)
+            throws NoTransporterException {
+        Transporter transporter = delegate.newInstance(session, repository);
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(key(repository), url -> {
+            int maxLimit = ConfigUtils.getInteger(session, DEFAULT_MAX_CONCURRENT_REQUESTS,
+                    MAX_CONCURRENT_REQUESTS_PROPERTY);
+            return new AdaptiveConcurrencyLimiter(url, INITIAL_LIMIT, maxLimit);
+        });
+        return new ConcurrencyLimitingTransporter(transporter, limiter);
+    }
+
+    @Override
+    public float getPriority() {
+        return delegate.getPriority();
+    }
+
+    private static String key(RemoteRepository repository) {
+        String url = repository.getUrl();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
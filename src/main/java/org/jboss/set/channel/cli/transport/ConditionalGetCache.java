@@ -0,0 +1,48 @@
+package org.jboss.set.channel.cli.transport;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the content and validators (ETag, Last-Modified) of repository metadata files, so that they can be
+ * re-fetched with conditional requests. When the metadata didn't change, the repository answers with an empty
+ * "304 Not Modified" response and the remembered content is used.
+ * <p>
+ * Only metadata files are cached, those are the files re-fetched when a repository is polled for new versions.
+ */
+final class ConditionalGetCache {
+
+    private static final String METADATA_FILE = "maven-metadata.xml";
+    private static final int MAX_ENTRIES = 50_000;
+
+    private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    static boolean isCacheable(String location) {
+        // Includes the checksum files of the metadata
+        return location.contains(METADATA_FILE);
+    }
+
+    synchronized Entry get(URI uri) {
+        return entries.get(uri);
+    }
+
+    /**
+     * Stores the content, if the response provided at least one validator.
+     */
+    synchronized void put(URI uri, String etag, String lastModified, byte[] content) {
+        if (etag == null && lastModified == null) {
+            entries.remove(uri);
+        } else {
+            entries.put(uri, new Entry(etag, lastModified, content));
+        }
+    }
+
+    record Entry(String etag, String lastModified, byte[] content) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.jboss.set.channel.cli.transport;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Signals that an HTTP request was answered with an unsuccessful status code.
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(URI uri, int statusCode) {
+        super("HTTP " + statusCode + " for " + uri);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,265 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.AuthenticationContext;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.AbstractTransporter;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.PeekTask;
+import org.eclipse.aether.spi.connector.transport.PutTask;
+import org.eclipse.aether.spi.connector.transport.TransportTask;
+import org.eclipse.aether.transfer.NoTransporterException;
+import org.eclipse.aether.util.ConfigUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transporter performing the HTTP requests via the JDK {@link HttpClient}.
+ * <p>
+ * Repository credentials are sent preemptively in the Authorization header, so redirects are not followed by the
+ * client, which would repeat the header to whatever host the repository redirects to. The transporter follows them
+ * itself, and drops the header once a redirect leaves the origin of the repository.
+ *
+ * @see JdkHttpTransporterFactory
+ */
+final class JdkHttpTransporter extends AbstractTransporter {
+
+    private static final int NOT_MODIFIED = 304;
+    private static final int MAX_REDIRECTS = 5;
+    private static final String AUTHORIZATION = "Authorization";
+
+    private final HttpClient client;
+    private final ConditionalGetCache conditionalGetCache;
+    private final URI baseUri;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final Duration requestTimeout;
+
+    /**
+     * @param conditionalGetCache cache of the metadata content for conditional requests, or null
+     */
+    JdkHttpTransporter(HttpClient client, ConditionalGetCache conditionalGetCache, RepositorySystemSession session,
+                       RemoteRepository repository) throws NoTransporterException {
+        this.client = client;
+        this.conditionalGetCache = conditionalGetCache;
+        try {
+            String url = repository.getUrl();
+            this.baseUri = new URI(url.endsWith("/") ? url : url + "/");
+        } catch (URISyntaxException e) {
+            throw new NoTransporterException(repository, e.getMessage(), e);
+        }
+
+        int timeout = ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_REQUEST_TIMEOUT,
+                ConfigurationProperties.REQUEST_TIMEOUT + "." + repository.getId(),
+                ConfigurationProperties.REQUEST_TIMEOUT);
+        this.requestTimeout = timeout > 0 ? Duration.ofMillis(timeout) : null;
+
+        headers.put("User-Agent", ConfigUtils.getString(session, ConfigurationProperties.DEFAULT_USER_AGENT,
+                ConfigurationProperties.USER_AGENT));
+        Map<?, ?> configuredHeaders = ConfigUtils.getMap(session, null,
+                ConfigurationProperties.HTTP_HEADERS + "." + repository.getId(),
+                ConfigurationProperties.HTTP_HEADERS);
+        if (configuredHeaders != null) {
+            configuredHeaders.forEach((name, value) -> headers.put(String.valueOf(name), String.valueOf(value)));
+        }
+        try (AuthenticationContext authContext = AuthenticationContext.forRepository(session, repository)) {
+            if (authContext != null) {
+                String username = authContext.get(AuthenticationContext.USERNAME);
+                String password = authContext.get(AuthenticationContext.PASSWORD);
+                if (username != null) {
+                    String credentials = username + ":" + (password == null ? "" : password);
+                    headers.put(AUTHORIZATION, "Basic "
+                            + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int classify(Throwable error) {
+        if (error instanceof HttpStatusException e && e.getStatusCode() == 404) {
+            return ERROR_NOT_FOUND;
+        }
+        return ERROR_OTHER;
+    }
+
+    @Override
+    protected void implPeek(PeekTask task) throws Exception {
+        HttpRequest request = newRequest(task)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        checkStatus(response);
+    }
+
+    @Override
+    protected void implGet(GetTask task) throws Exception {
+        if (conditionalGetCache != null && ConditionalGetCache.isCacheable(task.getLocation().toString())) {
+            conditionalGet(task);
+            return;
+        }
+        HttpRequest request = newRequest(task)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = response.body();
+        try {
+            checkStatus(response);
+        } catch (HttpStatusException e) {
+            body.close();
+            throw e;
+        }
+
+        long length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        if (isGzipped(response)) {
+            // Content-Length refers to the compressed body.
+            body = new GZIPInputStream(body);
+            length = -1;
+        }
+        utilGet(task, body, true, length, false);
+    }
+
+    /**
+     * Fetches a (small) metadata file, sending the validators of the previously fetched content. When the server
+     * confirms the content didn't change, the previous content is used.
+     */
+    private void conditionalGet(GetTask task) throws Exception {
+        final HttpRequest.Builder builder = newRequest(task).header("Accept-Encoding", "gzip").GET();
+        final URI uri = baseUri.resolve(task.getLocation());
+        final ConditionalGetCache.Entry cached = conditionalGetCache.get(uri);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                builder.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                builder.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+        final HttpRequest request = builder.build();
+        final HttpResponse<byte[]> response = send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        byte[] content;
+        if (cached != null && response.statusCode() == NOT_MODIFIED) {
+            content = cached.content();
+        } else {
+            checkStatus(response);
+            content = response.body();
+            if (isGzipped(response)) {
+                try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(content))) {
+                    content = is.readAllBytes();
+                }
+            }
+            conditionalGetCache.put(uri, response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null), content);
+        }
+        utilGet(task, new ByteArrayInputStream(content), true, content.length, false);
+    }
+
+    @Override
+    protected void implPut(PutTask task) throws Exception {
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return task.newInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        HttpRequest request = newRequest(task)
+                .PUT(task.getDataLength() > 0
+                        ? HttpRequest.BodyPublishers.fromPublisher(publisher, task.getDataLength())
+                        : publisher)
+                .build();
+        // Not redirected, the body can't be sent again
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        checkStatus(response);
+    }
+
+    @Override
+    protected void implClose() {
+        // The client is shared between transporters, nothing to close here.
+    }
+
+    private HttpRequest.Builder newRequest(TransportTask task) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(task.getLocation()));
+        headers.forEach(builder::header);
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        return builder;
+    }
+
+    /**
+     * Sends given request, following redirects the way {@link HttpClient.Redirect#NORMAL} does (never from HTTPS to
+     * HTTP), except that the Authorization header is only repeated for the origin of the original request.
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HttpRequest current = request;
+        HttpResponse<T> response = client.send(current, bodyHandler);
+        for (int i = 0; i < MAX_REDIRECTS && isRedirect(response.statusCode()); i++) {
+            final Optional<String> location = response.headers().firstValue("Location");
+            if (location.isEmpty()) {
+                break;
+            }
+            final URI target = current.uri().resolve(location.get());
+            if ("https".equalsIgnoreCase(current.uri().getScheme()) && !"https".equalsIgnoreCase(target.getScheme())) {
+                break;
+            }
+            if (response.body() instanceof InputStream body) {
+                body.close();
+            }
+            final boolean sameOrigin = isSameOrigin(request.uri(), target);
+            current = HttpRequest.newBuilder(current,
+                            (name, value) -> sameOrigin || !AUTHORIZATION.equalsIgnoreCase(name))
+                    .uri(target)
+                    .build();
+            response = client.send(current, bodyHandler);
+        }
+        return response;
+    }
+
+    private static boolean isRedirect(int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+    }
+
+    private static boolean isSameOrigin(URI first, URI second) {
+        return String.valueOf(first.getScheme()).equalsIgnoreCase(String.valueOf(second.getScheme()))
+                && String.valueOf(first.getHost()).equalsIgnoreCase(String.valueOf(second.getHost()))
+                && port(first) == port(second);
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static boolean isGzipped(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Encoding")
+                .map("gzip"::equalsIgnoreCase)
+                .orElse(false);
+    }
+
+    private static void checkStatus(HttpResponse<?> response) throws HttpStatusException {
+        if (response.statusCode() >= 300) {
+            throw new HttpStatusException(response.request().uri(), response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.transfer.NoTransporterException;
+import org.eclipse.aether.util.ConfigUtils;
+import org.jboss.logging.Logger;
+
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates transporters based on the {@link HttpClient} from the JDK.
+ * <p>
+ * Unlike the default Apache HttpClient based transport, this one speaks HTTP/2 where the server supports it, so that
+ * the many small metadata requests are multiplexed over a single connection per host. A single client (and thus a
+ * single connection pool) is shared by all transporters, because the resolver creates a new transporter for
+ * pretty much every resolution request.
+ * <p>
+ * The factory only creates transporters when the {@value #TRANSPORT_PROPERTY} session configuration property is set
+ * to {@value #JDK_TRANSPORT}, otherwise the resolver falls back to the next available HTTP transporter factory. The
+ * same fallback is used for repositories behind a proxy requiring authentication: the JDK client doesn't send Basic
+ * credentials when tunneling HTTPS through a proxy (see the {@code jdk.http.auth.tunneling.disabledSchemes} system
+ * property), so such repositories are left to the Apache HttpClient based transport.
+ */
+public class JdkHttpTransporterFactory implements TransporterFactory {
+
+    public static final String TRANSPORT_PROPERTY = "wildfly-channel-cli.transport";
+    public static final String APACHE_TRANSPORT = "apache";
+    public static final String JDK_TRANSPORT = "jdk";
+    /**
+     * Session configuration property enabling conditional requests for repository metadata, see
+     * {@link ConditionalGetCache}.
+     */
+    public static final String CONDITIONAL_REQUESTS_PROPERTY = "wildfly-channel-cli.conditional-requests";
+
+    private static final Logger logger = Logger.getLogger(JdkHttpTransporterFactory.class);
+
+    private static final String KEEPALIVE_TIMEOUT_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private static final String DEFAULT_KEEPALIVE_TIMEOUT = "300";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    // Higher than the priority of the Apache HttpClient based transporter factory.
+    private static final float PRIORITY = 10.0f;
+
+    // Clients are shared per proxy, the empty key stands for direct connections.
+    private static final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private static final ConditionalGetCache conditionalGetCache = new ConditionalGetCache();
+    // Proxies requiring authentication that have already been reported
+    private static final Set<String> proxiesWithAuthentication = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Transporter newInstance(RepositorySystemSession session, RemoteRepository repository)
+            throws NoTransporterException {
+        String transport = ConfigUtils.getString(session, APACHE_TRANSPORT, TRANSPORT_PROPERTY);
+        if (!JDK_TRANSPORT.equals(transport)) {
+            throw new NoTransporterException(repository, "JDK HTTP transport is not enabled");
+        }
+        String protocol = repository.getProtocol().toLowerCase(Locale.ROOT);
+        if (!"http".equals(protocol) && !"https".equals(protocol)) {
+            throw new NoTransporterException(repository);
+        }
+        Proxy proxy = repository.getProxy();
+        if (proxy != null && proxy.getAuthentication() != null) {
+            if (proxiesWithAuthentication.add(proxy.getHost() + ":" + proxy.getPort())) {
+                logger.warnf("Proxy %s:%d requires authentication, which is not supported by the JDK HTTP transport, " +
+                        "the Apache HTTP transport is used for repositories behind it.", proxy.getHost(), proxy.getPort());
+            }
+            throw new NoTransporterException(repository, "JDK HTTP transport doesn't support proxy authentication");
+        }
+        ConditionalGetCache cache = ConfigUtils.getBoolean(session, false, CONDITIONAL_REQUESTS_PROPERTY)
+                ? conditionalGetCache : null;
+        return new JdkHttpTransporter(getClient(proxy), cache, session, repository);
+    }
+
+    @Override
+    public float getPriority() {
+        return PRIORITY;
+    }
+
+    private static HttpClient getClient(Proxy proxy) {
+        String key = proxy == null ? "" : proxy.getHost() + ":" + proxy.getPort();
+        return clients.computeIfAbsent(key, k -> {
+            // Idle connections are kept around for the duration of a typical run. Set only when the transport is
+            // actually used, before the first client (and so its connection pool) is created.
+            if (System.getProperty(KEEPALIVE_TIMEOUT_PROPERTY) == null) {
+                System.setProperty(KEEPALIVE_TIMEOUT_PROPERTY, DEFAULT_KEEPALIVE_TIMEOUT);
+            }
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    // Redirects are followed by the transporters, which keep the credentials to the repository host
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(CONNECT_TIMEOUT);
+            if (proxy != null) {
+                builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+            }
+            return builder.build();
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package org.jboss.set.channel.cli.upgrade;
+
+import java.util.Optional;
+
+/**
+ * Built-in upgrade policies.
+ */
+public enum StandardUpgradePolicy implements UpgradePolicy {
+
+    /**
+     * Latest version with the same major and minor version, regardless of the qualifier.
+     */
+    LATEST_MICRO(UpgradeType.MICRO, UpgradeType.QUALIFIER_CHANGE),
+    /**
+     * Latest version with the same major and minor version and the same qualifier.
+     */
+    LATEST_MICRO_SAME_QUALIFIER(UpgradeType.MICRO),
+    /**
+     * Latest version with the same major version.
+     */
+    LATEST_MINOR(UpgradeType.MICRO, UpgradeType.QUALIFIER_CHANGE, UpgradeType.MINOR),
+    /**
+     * Latest available version.
+     */
+    LATEST(UpgradeType.values());
+
+    private final UpgradeType[] types;
+
+    StandardUpgradePolicy(UpgradeType... types) {
+        this.types = types;
+    }
+
+    @Override
+    public Optional<String> select(UpgradeCandidates candidates) {
+        return candidates.highest(types);
+    }
+}
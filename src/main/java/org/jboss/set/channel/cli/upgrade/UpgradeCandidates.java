@@ -0,0 +1,147 @@
+package org.jboss.set.channel.cli.upgrade;
+
+import org.jboss.set.channel.cli.utils.VersionUtils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Upgrade candidates of a single stream, classified in a single pass over the available versions.
+ */
+public class UpgradeCandidates {
+
+    private final String baseVersion;
+    // Both lists are ordered from the highest to the lowest version.
+    private final List<Candidate> candidates;
+    private final List<String> reportedVersions;
+
+    private UpgradeCandidates(String baseVersion, List<Candidate> candidates, List<String> reportedVersions) {
+        this.baseVersion = baseVersion;
+        this.candidates = candidates;
+        this.reportedVersions = reportedVersions;
+    }
+
+    /**
+     * Classifies the available versions against the base version.
+     * <p>
+     * Besides classifying every accepted version, this picks the versions to be reported: the highest version of
+     * each line, where a line is given by all but the last numerical segment, the qualifier and the number of
+     * segments.
+     *
+     * @param baseVersion current version of the stream
+     * @param versions available versions, ordered from the highest to the lowest
+     * @param filter versions not accepted by the filter are skipped
+     */
+    public static UpgradeCandidates classify(String baseVersion, Iterable<String> versions, Predicate<String> filter) {
+        final String[] baseSegments = VersionUtils.parseVersion(baseVersion);
+        final String baseQualifier = VersionUtils.firstQualifierSegment(baseSegments);
+
+        List<Candidate> candidates = new ArrayList<>();
+        List<String> reported = new ArrayList<>();
+        String[] lastSegments = null;
+        String[] lastNumericalSegments = null;
+        String lastQualifier = null;
+
+        for (String version : versions) {
+            if (!filter.test(version)) {
+                continue;
+            }
+            String[] segments = VersionUtils.parseVersion(version);
+            String[] numericalSegments = VersionUtils.numericalSegments(segments);
+            String qualifier = VersionUtils.firstQualifierSegment(segments);
+
+            candidates.add(new Candidate(version, classify(baseSegments, baseQualifier, segments, qualifier)));
+
+            // The first (highest) version is always reported, then the first version of each following line.
+            boolean differs = lastSegments == null;
+            if (!differs) {
+                for (int i = 0; i < lastNumericalSegments.length - 1; i++) {
+                    if (i >= numericalSegments.length || !numericalSegments[i].equals(lastNumericalSegments[i])) {
+                        differs = true;
+                        break;
+                    }
+                }
+                if (!qualifier.equals(lastQualifier) || segments.length != lastSegments.length) {
+                    differs = true;
+                }
+            }
+            if (differs) {
+                reported.add(version);
+                lastSegments = segments;
+                lastNumericalSegments = numericalSegments;
+                lastQualifier = qualifier;
+            }
+        }
+        return new UpgradeCandidates(baseVersion, candidates, reported);
+    }
+
+    private static UpgradeType classify(String[] baseSegments, String baseQualifier, String[] segments,
+                                        String qualifier) {
+        if (!sameSegment(baseSegments, segments, 0)) {
+            return UpgradeType.MAJOR;
+        }
+        if (!sameSegment(baseSegments, segments, 1)) {
+            return UpgradeType.MINOR;
+        }
+        if (!baseQualifier.equals(qualifier)) {
+            return UpgradeType.QUALIFIER_CHANGE;
+        }
+        return UpgradeType.MICRO;
+    }
+
+    private static boolean sameSegment(String[] s1, String[] s2, int index) {
+        return index < s1.length && index < s2.length && s1[index].equals(s2[index]);
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public boolean isEmpty() {
+        return candidates.isEmpty();
+    }
+
+    /**
+     * @return versions to be reported, ordered from the lowest to the highest
+     */
+    public List<String> getReportedVersions() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return reportedVersions.get(reportedVersions.size() - 1 - index);
+            }
+
+            @Override
+            public int size() {
+                return reportedVersions.size();
+            }
+        };
+    }
+
+    /**
+     * @return highest candidate of one of given types
+     */
+    public Optional<String> highest(UpgradeType... types) {
+        for (Candidate candidate : candidates) {
+            for (UpgradeType type : types) {
+                if (candidate.type() == type) {
+                    return Optional.of(candidate.version());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return all accepted candidates, ordered from the highest to the lowest version
+     */
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    public record Candidate(String version, UpgradeType type) {
+    }
+}
@@ -0,0 +1,15 @@
+package org.jboss.set.channel.cli.upgrade;
+
+import java.util.Optional;
+
+/**
+ * Chooses the version a stream should be upgraded to in the generated manifests.
+ */
+@FunctionalInterface
+public interface UpgradePolicy {
+
+    /**
+     * @return version to upgrade to, or empty if the stream should not be upgraded
+     */
+    Optional<String> select(UpgradeCandidates candidates);
+}
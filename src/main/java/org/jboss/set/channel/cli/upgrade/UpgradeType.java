@@ -0,0 +1,23 @@
+package org.jboss.set.channel.cli.upgrade;
+
+/**
+ * Kind of change between the current version of a stream and an upgrade candidate.
+ */
+public enum UpgradeType {
+    /**
+     * Same major and minor version, same qualifier.
+     */
+    MICRO,
+    /**
+     * Same major and minor version, different qualifier (e.g. "1.2.3" -> "1.2.3.redhat-00001").
+     */
+    QUALIFIER_CHANGE,
+    /**
+     * Same major version, different minor version.
+     */
+    MINOR,
+    /**
+     * Different major version.
+     */
+    MAJOR
+}
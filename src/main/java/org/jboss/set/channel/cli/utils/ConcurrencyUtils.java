@@ -0,0 +1,61 @@
+package org.jboss.set.channel.cli.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ConcurrencyUtils {
+
+    private ConcurrencyUtils() {
+    }
+
+    /**
+     * Waits for the future to complete and returns its result. If the task failed with an exception, the original
+     * exception is rethrown instead of an {@link ExecutionException}.
+     */
+    public static <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a fixed size pool of daemon threads with a bounded task queue. Submitting a task while the queue is full
+     * is rejected, so the callers are expected to limit the number of pending tasks themselves.
+     *
+     * @param name thread name prefix
+     * @param threads number of threads
+     * @param queueCapacity maximum number of pending tasks
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads, int queueCapacity) {
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Unwraps the original exception from a {@link CompletionException} or {@link ExecutionException}.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+}
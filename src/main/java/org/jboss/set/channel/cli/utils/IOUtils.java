@@ -8,29 +8,103 @@ import org.wildfly.channel.ChannelMapper;
 import org.wildfly.channel.Stream;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 public final class IOUtils {
 
     private static final Logger logger = Logger.getLogger(IOUtils.class);
 
+    /**
+     * Order of streams in the written manifests, so that the same set of streams always produces the same file.
+     */
+    public static final Comparator<Stream> STREAM_ORDER = Comparator
+            .comparing(Stream::getGroupId)
+            .thenComparing(Stream::getArtifactId)
+            .thenComparing(Stream::getVersion, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
     private IOUtils() {
     }
 
     public static void writeManifestFile(Path file, Collection<Stream> streams) throws IOException {
         logger.infof("Writing manifest into %s", file.toString());
-        ChannelManifest manifest = new ChannelManifest(null, null, null, streams);
+        List<Stream> sortedStreams = streams.stream().sorted(STREAM_ORDER).toList();
+        ChannelManifest manifest = new ChannelManifest(null, null, null, sortedStreams);
         String manifestString = ChannelManifestMapper.toYaml(manifest);
-        Files.write(file, manifestString.getBytes(), StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
+        writeIfChanged(file, manifestString.getBytes(StandardCharsets.UTF_8));
     }
 
     public static void writeChannelFile(Path file, Channel channel) throws IOException {
         logger.infof("Writing channel into %s", file.toString());
         String yaml = ChannelMapper.toYaml(channel);
-        Files.write(file, yaml.getBytes(), StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
+        writeIfChanged(file, yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Atomically replaces the file content, unless the file already has the same content. An unchanged file is not
+     * touched at all, so its modification time is preserved and tools watching the file don't see a change.
+     *
+     * @return true if the file was written, false if the file content was already up to date
+     */
+    public static boolean writeIfChanged(Path file, byte[] content) throws IOException {
+        if (Files.isRegularFile(file) && Files.size(file) == content.length
+                && MessageDigest.isEqual(digest(content), digest(file))) {
+            logger.debugf("File %s is up to date, not writing", file);
+            return false;
+        }
+
+        // Write a temporary file next to the target, so that the file is never seen partially written.
+        Path directory = file.toAbsolutePath().getParent();
+        Path tempFile = directory.resolve("." + file.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            Files.write(tempFile, content, StandardOpenOption.CREATE_NEW);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return true;
+    }
+
+    private static byte[] digest(byte[] content) {
+        return newDigest().digest(content);
+    }
+
+    private static byte[] digest(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
 }
@@ -0,0 +1,100 @@
+package org.jboss.set.channel.cli;
+
+import org.jboss.set.channel.cli.fixture.SyntheticRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures throughput and latency of the commands against a {@link SyntheticRepository} with various latency and
+ * failure rate settings.
+ * <p>
+ * Run with `mvn test -Pbenchmark`.
+ */
+@Tag("benchmark")
+public class EndToEndBenchmarkTestCase {
+
+    private static final int GROUPS = 20;
+    private static final int ARTIFACTS_PER_GROUP = 25;
+    private static final int VERSIONS_PER_ARTIFACT = 30;
+
+    private static final List<Scenario> SCENARIOS = List.of(
+            new Scenario("no latency", Duration.ZERO, 0),
+            new Scenario("10 ms latency", Duration.ofMillis(10), 0),
+            new Scenario("10 ms latency, 2% failures", Duration.ofMillis(10), 0.02)
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void benchmarkFindUpgrades() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            for (Scenario scenario : SCENARIOS) {
+                measure("find-upgrades", scenario, repository, () -> new CommandLine(new FindUpgradesCommand()).execute(
+                        repository.getChannelUrl(),
+                        "--repositories", repository.getRepository(),
+                        "--output-dir", tempDir.toString()));
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkCompareChannels() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            for (Scenario scenario : SCENARIOS) {
+                measure("compare-channels", scenario, repository, () -> new CommandLine(new CompareChannelsCommand()).execute(
+                        repository.getChannelUrl(), repository.getTargetChannelUrl(),
+                        "--output-file", tempDir.resolve("comparison.html").toString()));
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkExtractManifestUrl() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            for (Scenario scenario : SCENARIOS) {
+                measure("extract-manifest-url", scenario, repository, () -> new CommandLine(new ExtractManifestUrlCommand())
+                        .execute(repository.getChannelUrl()));
+            }
+        }
+    }
+
+    private static SyntheticRepository startRepository() throws Exception {
+        return SyntheticRepository.builder()
+                .groups(GROUPS)
+                .artifactsPerGroup(ARTIFACTS_PER_GROUP)
+                .versionsPerArtifact(VERSIONS_PER_ARTIFACT)
+                .qualifiers("redhat-00001", "redhat-00002")
+                .blockLatestMicro(true)
+                .start();
+    }
+
+    private static void measure(String command, Scenario scenario, SyntheticRepository repository,
+                                Supplier<Integer> execution) {
+        repository.setLatency(scenario.latency());
+        repository.setFailureRate(scenario.failureRate());
+        repository.resetCounters();
+
+        long start = System.nanoTime();
+        int exitCode = execution.get();
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        int streams = repository.getBaseStreams().size();
+        System.out.printf("%s [%s]: exit code %d, %d streams in %d ms (%.1f streams/s, %.1f ms/stream), " +
+                        "%d HTTP requests (%d failed, %.1f requests/stream)%n",
+                command, scenario.name(), exitCode, streams, millis, streams * 1000.0 / millis,
+                (double) millis / streams, repository.getRequestCount(), repository.getFailedRequestCount(),
+                (double) repository.getRequestCount() / streams);
+    }
+
+    private record Scenario(String name, Duration latency, double failureRate) {
+    }
+}
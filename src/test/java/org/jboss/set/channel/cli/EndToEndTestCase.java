@@ -0,0 +1,314 @@
+package org.jboss.set.channel.cli;
+
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.jboss.set.channel.cli.fixture.SyntheticRepository;
+import org.jboss.set.channel.cli.transport.ConcurrencyLimitingTransporterFactory;
+import org.jboss.set.channel.cli.transport.JdkHttpTransporterFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.Stream;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the commands against a {@link SyntheticRepository}.
+ */
+public class EndToEndTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFindUpgrades() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            assertThat(findUpgrades(repository, repository.getRepository(), tempDir)).isZero();
+
+            assertThat(tempDir.resolve("report.html")).exists();
+            assertThat(readStreams(tempDir.resolve("diff-manifest.yaml")))
+                    .containsExactlyInAnyOrderElementsOf(repository.getTargetStreams());
+            assertThat(readStreams(tempDir.resolve("upgraded-manifest.yaml")))
+                    .containsExactlyInAnyOrderElementsOf(repository.getTargetStreams());
+        }
+    }
+
+    @Test
+    public void testFindUpgradesWithRepositoryIndex() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            // The searched repository contains no metadata, only the index
+            Path indexedRepository = Files.createDirectories(tempDir.resolve("indexed"));
+            repository.writeMavenIndex(indexedRepository);
+            Path outputDir = Files.createDirectories(tempDir.resolve("output"));
+            assertThat(findUpgrades(repository, "indexed::" + indexedRepository.toUri(), outputDir,
+                    "--index-repositories", "indexed",
+                    "--index-cache", tempDir.resolve("index-cache").toString())).isZero();
+
+            assertThat(readStreams(outputDir.resolve("diff-manifest.yaml")))
+                    .containsExactlyInAnyOrderElementsOf(repository.getTargetStreams());
+        }
+    }
+
+    @Test
+    public void testRepositoryIndexRejectedInWatchMode() throws Exception {
+        Path indexedRepository = Files.createDirectories(tempDir.resolve("indexed"));
+        int exitCode = new CommandLine(new FindUpgradesCommand()).execute(
+                tempDir.resolve("channel.yaml").toUri().toString(),
+                "--repositories", "indexed::" + indexedRepository.toUri(),
+                "--index-repositories", "indexed",
+                "--watch",
+                "--output-dir", tempDir.toString());
+        assertThat(exitCode).isNotZero();
+        assertThat(tempDir.resolve("report.html")).doesNotExist();
+    }
+
+    @Test
+    public void testWatchPollUsesConditionalRequests() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            // Without an explicit --http-transport, the watch mode uses the transport making conditional requests
+            assertThat(findUpgrades(repository, repository.getRepository(), tempDir,
+                    "--watch", "--watch-min-interval", "0", "--watch-polls", "1")).isZero();
+
+            // The single poll found the metadata of every component unchanged
+            assertThat(repository.getNotModifiedCount())
+                    .isGreaterThanOrEqualTo(repository.getBaseStreams().size());
+        }
+    }
+
+    @Test
+    public void testFindUpgradesWithLocalRepository() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            // Versions are looked up in the scanned metadata of the local repository
+            Path localRepository = Files.createDirectories(tempDir.resolve("local"));
+            repository.writeMetadata(localRepository);
+            Path outputDir = Files.createDirectories(tempDir.resolve("output"));
+            assertThat(findUpgrades(repository, "local::" + localRepository.toUri(), outputDir)).isZero();
+
+            assertThat(readStreams(outputDir.resolve("diff-manifest.yaml")))
+                    .containsExactlyInAnyOrderElementsOf(repository.getTargetStreams());
+        }
+    }
+
+    @Test
+    public void testFindUpgradesWithVersionHistory() throws Exception {
+        try (SyntheticRepository repository = SyntheticRepository.builder()
+                .groups(1)
+                .artifactsPerGroup(3)
+                .versionsPerArtifact(10)
+                .start()) {
+            Path historyFile = tempDir.resolve("version-history.bin");
+            assertThat(findUpgrades(repository, repository.getRepository(), tempDir,
+                    "--version-history", historyFile.toString())).isZero();
+
+            assertThat(historyFile).exists();
+            assertThat(Files.readString(tempDir.resolve("report.html"))).contains("Since");
+        }
+    }
+
+    @Test
+    public void testShardedFindUpgrades() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            Path singleDir = Files.createDirectories(tempDir.resolve("single"));
+            assertThat(findUpgrades(repository, repository.getRepository(), singleDir)).isZero();
+
+            List<String> mergeArgs = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                Path shardDir = Files.createDirectories(tempDir.resolve("shard-" + i));
+                assertThat(findUpgrades(repository, repository.getRepository(), shardDir, "--shard", i + "/3"))
+                        .isZero();
+                assertThat(shardDir.resolve("report.html")).doesNotExist();
+                mergeArgs.add(shardDir.resolve("upgrade-results-" + i + "-of-3.bin").toString());
+            }
+
+            Path mergedDir = Files.createDirectories(tempDir.resolve("merged"));
+            mergeArgs.add("--output-dir");
+            mergeArgs.add(mergedDir.toString());
+            assertThat(new CommandLine(new MergeUpgradeResultsCommand()).execute(mergeArgs.toArray(String[]::new)))
+                    .isZero();
+
+            for (String file : List.of("report.html", "diff-manifest.yaml", "upgraded-manifest.yaml")) {
+                assertThat(mergedDir.resolve(file)).hasSameTextualContentAs(singleDir.resolve(file));
+            }
+
+            // Results of one of the shards are missing
+            assertThat(new CommandLine(new MergeUpgradeResultsCommand()).execute(
+                    mergeArgs.get(0), mergeArgs.get(1), "--output-dir", mergedDir.toString())).isNotZero();
+        }
+    }
+
+    @Test
+    public void testRenderReport() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            Path findDir = Files.createDirectories(tempDir.resolve("find"));
+            assertThat(findUpgrades(repository, repository.getRepository(), findDir)).isZero();
+            Path resultsFile = findDir.resolve("upgrade-results.bin");
+            assertThat(resultsFile).exists();
+
+            Path renderedDir = Files.createDirectories(tempDir.resolve("rendered"));
+            assertThat(new CommandLine(new RenderReportCommand()).execute(
+                    resultsFile.toString(), "--output-dir", renderedDir.toString())).isZero();
+            for (String file : List.of("report.html", "diff-manifest.yaml", "upgraded-manifest.yaml")) {
+                assertThat(renderedDir.resolve(file)).hasSameTextualContentAs(findDir.resolve(file));
+            }
+
+            // Only the first group is kept in the filtered view
+            Path filteredDir = Files.createDirectories(tempDir.resolve("filtered"));
+            assertThat(new CommandLine(new RenderReportCommand()).execute(
+                    resultsFile.toString(),
+                    "--exclude-groups", SyntheticRepository.GROUP_PREFIX + "1",
+                    "--output-dir", filteredDir.toString())).isZero();
+            assertThat(readStreams(filteredDir.resolve("diff-manifest.yaml"))).containsExactlyInAnyOrderElementsOf(
+                    repository.getTargetStreams().stream()
+                    .filter(s -> s.getGroupId().equals(SyntheticRepository.GROUP_PREFIX + "0"))
+                    .toList());
+        }
+    }
+
+    @Test
+    public void testPipeline() throws Exception {
+        try (SyntheticRepository repository = startRepository()) {
+            Stream overridden = repository.getTargetStreams().get(0);
+            Stream override = new Stream(overridden.getGroupId(), overridden.getArtifactId(), "99.0.0");
+            Stream added = new Stream("org.override", "cve-fix", "1.0.1");
+            Path overridesFile = tempDir.resolve("overrides.yaml");
+            Files.writeString(overridesFile, ChannelManifestMapper.toYaml(
+                    new ChannelManifest("overrides", null, null, List.of(override, added))));
+
+            Path specFile = tempDir.resolve("pipeline.yaml");
+            Files.writeString(specFile, new YAMLMapper().writeValueAsString(Map.of(
+                    "find-upgrades", Map.of(
+                            "channel", repository.getChannelUrl(),
+                            "args", List.of("--repositories", repository.getRepository(),
+                                    "--max-concurrent-requests", "4")),
+                    "merge-manifests", Map.of("manifest", overridesFile.toUri().toString()),
+                    "create-channel", Map.of(
+                            "name", "upgraded",
+                            "repositories", List.of(repository.getRepository())))));
+            Path outputDir = Files.createDirectories(tempDir.resolve("output"));
+
+            PipelineCommand pipeline = new PipelineCommand();
+            int exitCode = new CommandLine(pipeline).execute(specFile.toString(),
+                    "--http-transport", "jdk",
+                    "--max-concurrent-requests", "8",
+                    "--output-dir", outputDir.toString());
+            assertThat(exitCode).isZero();
+            // The find-upgrades step keeps the transport of the pipeline, but its own concurrency limit wins
+            assertThat(pipeline.systemSession.getConfigProperties())
+                    .containsEntry(JdkHttpTransporterFactory.TRANSPORT_PROPERTY, "jdk")
+                    .containsEntry(ConcurrencyLimitingTransporterFactory.MAX_CONCURRENT_REQUESTS_PROPERTY, 4);
+
+            assertThat(outputDir.resolve("report.html")).exists();
+            List<Stream> expectedStreams = new ArrayList<>(repository.getTargetStreams());
+            expectedStreams.set(0, override);
+            expectedStreams.add(added);
+            assertThat(readStreams(outputDir.resolve("manifest.yaml")))
+                    .containsExactlyInAnyOrderElementsOf(expectedStreams);
+            Channel channel = ChannelMapper.from(outputDir.resolve("channel.yaml").toUri().toURL());
+            assertThat(channel.getName()).isEqualTo("upgraded");
+            assertThat(channel.getManifestCoordinate().getUrl())
+                    .isEqualTo(outputDir.resolve("manifest.yaml").toUri().toURL());
+        }
+    }
+
+    @Test
+    public void testCompareChannels() throws Exception {
+        try (SyntheticRepository repository = SyntheticRepository.builder()
+                .groups(2)
+                .artifactsPerGroup(5)
+                .start()) {
+            Path reportFile = tempDir.resolve("comparison.html");
+            String output = captureOutput(() -> new CommandLine(new CompareChannelsCommand()).execute(
+                    repository.getChannelUrl(), repository.getTargetChannelUrl(),
+                    "--output-file", reportFile.toString()));
+
+            assertThat(reportFile).exists();
+            for (int i = 0; i < repository.getBaseStreams().size(); i++) {
+                Stream base = repository.getBaseStreams().get(i);
+                Stream target = repository.getTargetStreams().get(i);
+                assertThat(output).contains(String.format("%s:%s:%s -> %s", base.getGroupId(), base.getArtifactId(),
+                        base.getVersion(), target.getVersion()));
+            }
+        }
+    }
+
+    @Test
+    public void testExtractManifestUrl() throws Exception {
+        try (SyntheticRepository repository = SyntheticRepository.builder().start()) {
+            String output = captureOutput(() -> new CommandLine(new ExtractManifestUrlCommand())
+                    .execute(repository.getChannelUrl()));
+            assertThat(output.trim()).isEqualTo(repository.getManifestUrl());
+        }
+    }
+
+    @Test
+    public void testInspectChannel() throws Exception {
+        try (SyntheticRepository repository = SyntheticRepository.builder().start()) {
+            String output = captureOutput(() -> new CommandLine(new InspectChannelCommand())
+                    .execute(repository.getChannelUrl()));
+            Map<?, ?> result = new YAMLMapper().readValue(output, Map.class);
+            assertThat(result.get("manifest-url")).isEqualTo(repository.getManifestUrl());
+            assertThat(result.get("blocklist-url")).isEqualTo(repository.getBlocklistUrl());
+            assertThat((List<?>) result.get("repositories"))
+                    .containsExactly(Map.of("id", SyntheticRepository.REPOSITORY_ID, "url", repository.getUrl()));
+        }
+    }
+
+    /**
+     * Starts the repository shared by most of the tests: two groups of five artifacts with twenty versions each, and a
+     * blocklist blocking the latest micro version of each artifact.
+     */
+    private static SyntheticRepository startRepository() throws Exception {
+        return SyntheticRepository.builder()
+                .groups(2)
+                .artifactsPerGroup(5)
+                .versionsPerArtifact(20)
+                .qualifiers("redhat-00001")
+                .blockLatestMicro(true)
+                .start();
+    }
+
+    /**
+     * Runs find-upgrades for the base channel of given repository.
+     *
+     * @param repositories value of the --repositories option
+     * @return exit code of the command
+     */
+    private static int findUpgrades(SyntheticRepository repository, String repositories, Path outputDir,
+                                    String... args) {
+        List<String> allArgs = new ArrayList<>(List.of(repository.getChannelUrl(),
+                "--repositories", repositories,
+                "--output-dir", outputDir.toString()));
+        allArgs.addAll(List.of(args));
+        return new CommandLine(new FindUpgradesCommand()).execute(allArgs.toArray(String[]::new));
+    }
+
+    private static Collection<Stream> readStreams(Path manifestFile) throws Exception {
+        return ChannelManifestMapper.from(manifestFile.toUri().toURL()).getStreams();
+    }
+
+    static String captureOutput(Callable<Integer> command) throws Exception {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            assertThat(command.call()).isZero();
+        } finally {
+            System.setOut(originalOut);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
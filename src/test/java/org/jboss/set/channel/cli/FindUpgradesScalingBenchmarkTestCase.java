@@ -0,0 +1,217 @@
+package org.jboss.set.channel.cli;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs find-upgrades end to end against generated file:// repositories of increasing size, and reports wall time,
+ * peak heap usage, allocation rate and number of repository requests per stream.
+ * <p>
+ * By default the file:// repository is scanned once upfront, so the requests per stream are only the few transfers
+ * that still go through the repository system (channel metadata and the POMs of the channel versions). With
+ * `-Dbenchmark.localScan=false` the command runs with `--no-local-scan`, and the metadata of each stream is requested
+ * through the repository system, which measures the resolver path used for remote repositories.
+ * <p>
+ * Run with `mvn test -Pbenchmark`. Channel sizes can be overridden with `-Dbenchmark.sizes=100,1000`.
+ */
+@Tag("benchmark")
+public class FindUpgradesScalingBenchmarkTestCase {
+
+    private static final String DEFAULT_SIZES = "100,1000,10000,50000";
+    private static final int VERSIONS_PER_STREAM = 50;
+    private static final int ARTIFACTS_PER_GROUP = 50;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void benchmarkChannelSizes() throws Exception {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", DEFAULT_SIZES).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        boolean localScan = Boolean.parseBoolean(System.getProperty("benchmark.localScan", "true"));
+
+        List<String> results = new ArrayList<>();
+        for (int size : sizes) {
+            results.add(run(size, localScan));
+        }
+
+        System.out.println("find-upgrades scaling benchmark, " + VERSIONS_PER_STREAM + " versions per stream, "
+                + (localScan ? "local repository scanned upfront:" : "metadata requested per stream:"));
+        System.out.printf("%8s %10s %14s %18s %18s%n", "streams", "wall [ms]", "peak heap [MB]",
+                "allocation [MB/s]", "requests/stream");
+        results.forEach(System.out::println);
+    }
+
+    private String run(int streams, boolean localScan) throws Exception {
+        final Path workDir = Files.createDirectories(tempDir.resolve("size-" + streams));
+        final Path repository = Files.createDirectories(workDir.resolve("repository"));
+        final Path channelFile = generate(streams, workDir, repository);
+        final Path outputDir = Files.createDirectories(workDir.resolve("output"));
+
+        FindUpgradesCommand command = new FindUpgradesCommand();
+        AtomicLong requests = new AtomicLong();
+        command.systemSession.setTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferInitiated(TransferEvent event) {
+                requests.incrementAndGet();
+            }
+        });
+
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        AllocationSampler sampler = new AllocationSampler();
+        sampler.start();
+
+        List<String> args = new ArrayList<>(List.of(
+                channelFile.toUri().toString(),
+                "--repositories", "benchmark::" + repository.toUri(),
+                "--output-dir", outputDir.toString()));
+        if (!localScan) {
+            args.add("--no-local-scan");
+        }
+
+        long start = System.nanoTime();
+        int exitCode = new CommandLine(command).execute(args.toArray(new String[0]));
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long allocatedBytes = sampler.stopAndGetAllocatedBytes();
+        assertThat(exitCode).isZero();
+
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+
+        return String.format("%8d %10d %14d %18.1f %18.2f", streams, millis, peakHeap / (1024 * 1024),
+                allocatedBytes / (1024.0 * 1024.0) / (millis / 1000.0), (double) requests.get() / streams);
+    }
+
+    /**
+     * Generates a repository with given number of GAs, and a channel pinning all the GAs to their lowest version.
+     *
+     * @return the channel file
+     */
+    private static Path generate(int streamCount, Path workDir, Path repository) throws IOException {
+        List<Stream> streams = new ArrayList<>();
+        for (int i = 0; i < streamCount; i++) {
+            String groupId = "org.benchmark.g" + (i / ARTIFACTS_PER_GROUP);
+            String artifactId = "artifact-" + (i % ARTIFACTS_PER_GROUP);
+            Path gaDir = Files.createDirectories(repository.resolve(groupId.replace('.', '/')).resolve(artifactId));
+
+            StringBuilder metadata = new StringBuilder();
+            metadata.append("<metadata><groupId>").append(groupId).append("</groupId><artifactId>")
+                    .append(artifactId).append("</artifactId><versioning><versions>");
+            for (int v = 0; v < VERSIONS_PER_STREAM; v++) {
+                metadata.append("<version>").append(version(v)).append("</version>");
+            }
+            metadata.append("</versions></versioning></metadata>");
+            Files.writeString(gaDir.resolve("maven-metadata.xml"), metadata);
+
+            // Only the POM of the channel version is resolved by the command.
+            String baseVersion = version(0);
+            Path versionDir = Files.createDirectories(gaDir.resolve(baseVersion));
+            Files.writeString(versionDir.resolve(artifactId + "-" + baseVersion + ".pom"),
+                    "<project><modelVersion>4.0.0</modelVersion><groupId>" + groupId + "</groupId><artifactId>"
+                            + artifactId + "</artifactId><version>" + baseVersion + "</version></project>");
+            streams.add(new Stream(groupId, artifactId, baseVersion));
+        }
+
+        Path manifestFile = workDir.resolve("manifest.yaml");
+        Files.writeString(manifestFile, ChannelManifestMapper.toYaml(
+                new ChannelManifest("benchmark manifest", null, null, streams)));
+        Channel channel = new Channel("benchmark", null, null,
+                List.of(new Repository("benchmark", repository.toUri().toString())),
+                new ChannelManifestCoordinate(manifestFile.toUri().toURL()), null, Channel.NoStreamStrategy.NONE);
+        Path channelFile = workDir.resolve("channel.yaml");
+        Files.writeString(channelFile, ChannelMapper.toYaml(channel));
+        return channelFile;
+    }
+
+    private static String version(int index) {
+        return "1." + (index / 10) + "." + (index % 10) + ".Final";
+    }
+
+    /**
+     * Periodically samples allocated bytes of all live threads, so that allocations of short-lived worker threads are
+     * accounted for too (up to the last sample).
+     */
+    private static class AllocationSampler extends Thread {
+
+        private final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final Map<Long, Long> initial = new HashMap<>();
+        private final Map<Long, Long> latest = new HashMap<>();
+        private volatile boolean running = true;
+
+        AllocationSampler() {
+            setDaemon(true);
+            sample(initial);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                synchronized (latest) {
+                    sample(latest);
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long stopAndGetAllocatedBytes() throws InterruptedException {
+            running = false;
+            join();
+            synchronized (latest) {
+                sample(latest);
+                long total = 0;
+                for (Map.Entry<Long, Long> entry : latest.entrySet()) {
+                    total += entry.getValue() - initial.getOrDefault(entry.getKey(), 0L);
+                }
+                return total;
+            }
+        }
+
+        private void sample(Map<Long, Long> target) {
+            long[] ids = threadBean.getAllThreadIds();
+            long[] allocated = threadBean.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (allocated[i] >= 0) {
+                    target.merge(ids[i], allocated[i], Math::max);
+                }
+            }
+        }
+    }
+}
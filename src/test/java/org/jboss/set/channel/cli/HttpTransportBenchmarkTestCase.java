@@ -0,0 +1,166 @@
+package org.jboss.set.channel.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.jboss.set.channel.cli.transport.JdkHttpTransporterFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the throughput of the available HTTP transports when fetching maven-metadata.xml files from an in-process
+ * HTTP server.
+ * <p>
+ * The server is the JDK {@link HttpServer} over plain HTTP, which only speaks HTTP/1.1, so both transports use
+ * HTTP/1.1 here. The benchmark compares the connection handling and per-request overhead of the two clients, it does
+ * not measure HTTP/2 multiplexing.
+ * <p>
+ * Run with `mvn test -Pbenchmark`.
+ */
+@Tag("benchmark")
+public class HttpTransportBenchmarkTestCase {
+
+    private static final int ARTIFACTS = 2000;
+    private static final int VERSIONS = 50;
+    private static final int THREADS = 16;
+    private static final Pattern METADATA_PATH =
+            Pattern.compile("/org/example/(a\\d+)/maven-metadata\\.xml(\\.sha1)?");
+
+    private static HttpServer server;
+    private static final AtomicInteger requestCounter = new AtomicInteger();
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(THREADS * 2));
+        server.createContext("/", HttpTransportBenchmarkTestCase::handle);
+        server.start();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void benchmarkTransports() throws Exception {
+        // Warm up both transports first.
+        resolveAll(JdkHttpTransporterFactory.APACHE_TRANSPORT);
+        resolveAll(JdkHttpTransporterFactory.JDK_TRANSPORT);
+
+        for (String transport : List.of(JdkHttpTransporterFactory.APACHE_TRANSPORT,
+                JdkHttpTransporterFactory.JDK_TRANSPORT)) {
+            requestCounter.set(0);
+            long start = System.nanoTime();
+            resolveAll(transport);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("HTTP transport \"%s\" (HTTP/1.1): %d artifacts in %d ms, %d HTTP requests, %.0f requests/s%n",
+                    transport, ARTIFACTS, millis, requestCounter.get(), requestCounter.get() * 1000.0 / millis);
+        }
+    }
+
+    private static void resolveAll(String transport) throws Exception {
+        RepositorySystem system = MavenBasedCommand.newRepositorySystem();
+        DefaultRepositorySystemSession session = MavenBasedCommand.newRepositorySystemSession(system);
+        session.setConfigProperty(JdkHttpTransporterFactory.TRANSPORT_PROPERTY, transport);
+        RemoteRepository repository = new RemoteRepository.Builder("benchmark", "default",
+                "http://localhost:" + server.getAddress().getPort() + "/").build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<VersionRangeResult>> futures = new ArrayList<>();
+            for (int i = 0; i < ARTIFACTS; i++) {
+                VersionRangeRequest request = new VersionRangeRequest(
+                        new DefaultArtifact("org.example", "a" + i, "pom", "[0,)"), List.of(repository), null);
+                futures.add(executor.submit(() -> system.resolveVersionRange(session, request)));
+            }
+            for (Future<VersionRangeResult> future : futures) {
+                assertThat(future.get().getVersions()).hasSize(VERSIONS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        requestCounter.incrementAndGet();
+        Matcher matcher = METADATA_PATH.matcher(exchange.getRequestURI().getPath());
+        if (!matcher.matches()) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = metadata(matcher.group(1));
+        if (matcher.group(2) != null) {
+            body = sha1(body).getBytes(StandardCharsets.UTF_8);
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private static byte[] metadata(String artifactId) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<metadata><groupId>org.example</groupId><artifactId>").append(artifactId)
+                .append("</artifactId><versioning><versions>");
+        for (int i = 0; i < VERSIONS; i++) {
+            sb.append("<version>1.").append(i).append(".0.Final</version>");
+        }
+        sb.append("</versions></versioning></metadata>");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
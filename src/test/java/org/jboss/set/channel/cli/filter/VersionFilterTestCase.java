@@ -0,0 +1,71 @@
+package org.jboss.set.channel.cli.filter;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.Blocklist;
+import org.wildfly.channel.BlocklistEntry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class VersionFilterTestCase {
+
+    private static final List<String> VERSIONS = List.of(
+            "2.0.0", "1.3.0.jre-redhat-00001", "1.2.0.fuse-redhat-00001", "1.1.0.redhat-00001", "1.0.1", "1.0.0");
+
+    @Test
+    public void testNoCriteria() {
+        VersionFilter filter = VersionFilter.builder().build();
+        assertThat(filter.filter("g", "a", VERSIONS)).isEqualTo(VERSIONS);
+    }
+
+    @Test
+    public void testPatterns() {
+        VersionFilter filter = VersionFilter.builder()
+                .include(Pattern.compile("[.-]redhat-"))
+                .exclude(Pattern.compile("[.-]fuse-"))
+                .build();
+        assertThat(filter.filter("g", "a", VERSIONS))
+                .containsExactly("1.3.0.jre-redhat-00001", "1.1.0.redhat-00001");
+    }
+
+    @Test
+    public void testGlobs() {
+        VersionFilter filter = VersionFilter.builder()
+                .includeGlobs(List.of("1.*", "2.?.0"))
+                .excludeGlobs(List.of("*fuse*", "1.0.?"))
+                .build();
+        assertThat(filter.filter("g", "a", VERSIONS))
+                .containsExactly("2.0.0", "1.3.0.jre-redhat-00001", "1.1.0.redhat-00001");
+    }
+
+    @Test
+    public void testRange() {
+        VersionFilter filter = VersionFilter.builder()
+                .range("[1.0.1,2.0.0)")
+                .build();
+        assertThat(filter.filter("g", "a", VERSIONS))
+                .containsExactly("1.3.0.jre-redhat-00001", "1.2.0.fuse-redhat-00001", "1.1.0.redhat-00001", "1.0.1");
+
+        assertThatThrownBy(() -> VersionFilter.builder().range("[1.1,"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBlocklistIsPerComponent() {
+        Blocklist blocklist = new Blocklist("1.0.0", Set.of(new BlocklistEntry("g", "a", Set.of("2.0.0", "1.0.1"))));
+        VersionFilter filter = VersionFilter.builder()
+                .exclude(Pattern.compile("[.-]fuse-"))
+                .blocklists(List.of(blocklist))
+                .build();
+
+        assertThat(filter.filter("g", "a", VERSIONS))
+                .containsExactly("1.3.0.jre-redhat-00001", "1.1.0.redhat-00001", "1.0.0");
+        // Memoized verdicts must not leak the blocklist of another component.
+        assertThat(filter.filter("g", "b", VERSIONS))
+                .containsExactly("2.0.0", "1.3.0.jre-redhat-00001", "1.1.0.redhat-00001", "1.0.1", "1.0.0");
+    }
+}
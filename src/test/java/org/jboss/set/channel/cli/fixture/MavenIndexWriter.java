@@ -0,0 +1,94 @@
+package org.jboss.set.channel.cli.fixture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Test fixture that publishes a Maven index of a repository directory: the whole index, its incremental chunks and
+ * the properties file describing them, in the format written by repository managers.
+ * <p>
+ * Artifacts are given as {@code groupId:artifactId:version} strings.
+ */
+public class MavenIndexWriter {
+
+    private final Path indexDirectory;
+    private final String chainId;
+    private int lastChunk;
+
+    public MavenIndexWriter(Path repositoryDirectory, String chainId) throws IOException {
+        this.indexDirectory = Files.createDirectories(repositoryDirectory.resolve(".index"));
+        this.chainId = chainId;
+    }
+
+    public void writeIndex(Collection<String> artifacts) throws IOException {
+        writeDocuments(indexDirectory.resolve("nexus-maven-repository-index.gz"), artifacts, List.of());
+        writeProperties();
+    }
+
+    public void writeChunk(int chunk, Collection<String> added, Collection<String> deleted) throws IOException {
+        writeDocuments(indexDirectory.resolve("nexus-maven-repository-index." + chunk + ".gz"), added, deleted);
+        lastChunk = chunk;
+        writeProperties();
+    }
+
+    private void writeProperties() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("nexus.index.id", "synthetic");
+        properties.setProperty("nexus.index.chain-id", chainId);
+        // A freshly published index starts with chunk counter zero, the first chunk is number one.
+        properties.setProperty("nexus.index.last-incremental", String.valueOf(lastChunk));
+        for (int i = 0; i < lastChunk; i++) {
+            properties.setProperty("nexus.index.incremental-" + i, String.valueOf(lastChunk - i));
+        }
+        try (OutputStream out = Files.newOutputStream(indexDirectory.resolve("nexus-maven-repository-index.properties"))) {
+            properties.store(out, null);
+        }
+    }
+
+    private static void writeDocuments(Path file, Collection<String> added, Collection<String> deleted)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeByte(1);
+            out.writeLong(System.currentTimeMillis());
+            writeDocument(out, Map.of("DESCRIPTOR", "NexusIndex", "IDXINFO", "1.0|synthetic"));
+            for (String artifact : added) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                fields.put("i", "jar|0|-1|0|0|0|jar");
+                fields.put("u", uinfo(artifact));
+                fields.put("m", String.valueOf(System.currentTimeMillis()));
+                writeDocument(out, fields);
+            }
+            for (String artifact : deleted) {
+                writeDocument(out, Map.of("del", uinfo(artifact), "m", String.valueOf(System.currentTimeMillis())));
+            }
+        }
+    }
+
+    private static String uinfo(String artifact) {
+        String[] gav = artifact.split(":");
+        return gav[0] + "|" + gav[1] + "|" + gav[2] + "|NA|jar";
+    }
+
+    private static void writeDocument(DataOutputStream out, Map<String, String> fields) throws IOException {
+        out.writeInt(fields.size());
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            out.writeByte(0);
+            out.writeUTF(field.getKey());
+            // Values are in modified UTF-8 like writeUTF(), but with a four byte length
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(field.getValue());
+            out.writeInt(bytes.size() - 2);
+            out.write(bytes.toByteArray(), 2, bytes.size() - 2);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package org.jboss.set.channel.cli.fixture;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.wildfly.channel.BlocklistCoordinate;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test fixture that generates a synthetic Maven repository and serves it via an in-process HTTP server.
+ * <p>
+ * The repository contains given number of GAs, each with given number of versions. Version {@code i} of a GA is
+ * {@code 1.<i / 10>.<i % 10>}, suffixed with each of the configured qualifiers. Apart from the repository
+ * metadata and POMs, the server provides following files:
+ * <ul>
+ *     <li>{@code /channel.yaml} and {@code /manifest.yaml} - base channel pinning every GA to its lowest version,</li>
+ *     <li>{@code /target-channel.yaml} and {@code /target-manifest.yaml} - channel pinning every GA to the latest
+ *     micro version of the base minor,</li>
+ *     <li>{@code /blocklist.yaml} - blocklist referenced by both channels.</li>
+ * </ul>
+ * Responses carry an ETag, requests with a matching If-None-Match header are answered with "304 Not Modified". Latency
+ * and failure rate of the server can be changed at any time.
+ */
+public class SyntheticRepository implements AutoCloseable {
+
+    public static final String REPOSITORY_ID = "synthetic";
+    public static final String GROUP_PREFIX = "org.synthetic.g";
+    public static final String ARTIFACT_PREFIX = "artifact-";
+
+    private final Builder config;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, List<String>> versionsByPath = new HashMap<>();
+    private final List<Stream> baseStreams = new ArrayList<>();
+    private final List<Stream> targetStreams = new ArrayList<>();
+    private final Map<String, byte[]> files = new HashMap<>();
+    private final SplittableRandom random;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failedRequestCount = new AtomicLong();
+    private final AtomicLong notModifiedCount = new AtomicLong();
+
+    private volatile Duration latency;
+    private volatile double failureRate;
+
+    private SyntheticRepository(Builder config) throws IOException {
+        this.config = config;
+        this.latency = config.latency;
+        this.failureRate = config.failureRate;
+        this.random = new SplittableRandom(config.seed);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        executor = Executors.newFixedThreadPool(config.serverThreads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+
+        generate();
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private void generate() throws IOException {
+        final StringBuilder blocklist = new StringBuilder("schemaVersion: \"1.0.0\"\nblocks:\n");
+        for (int g = 0; g < config.groups; g++) {
+            for (int a = 0; a < config.artifactsPerGroup; a++) {
+                final String groupId = GROUP_PREFIX + g;
+                final String artifactId = ARTIFACT_PREFIX + a;
+                final List<String> versions = versions();
+                versionsByPath.put(groupId.replace('.', '/') + "/" + artifactId, versions);
+
+                baseStreams.add(new Stream(groupId, artifactId, versions.get(0)));
+                String latestMicro = latestBaseMicro(config.blockLatestMicro ? 1 : 0);
+                targetStreams.add(new Stream(groupId, artifactId, latestMicro));
+                if (config.blockLatestMicro) {
+                    blocklist.append("  - groupId: \"").append(groupId).append("\"\n")
+                            .append("    artifactId: \"").append(artifactId).append("\"\n")
+                            .append("    versions:\n")
+                            .append("      - \"").append(latestBaseMicro(0)).append("\"\n");
+                }
+            }
+        }
+        if (!config.blockLatestMicro) {
+            blocklist.setLength(0);
+            blocklist.append("schemaVersion: \"1.0.0\"\nblocks: []\n");
+        }
+
+        files.put("/manifest.yaml", utf8(ChannelManifestMapper.toYaml(
+                new ChannelManifest("synthetic base manifest", null, null, baseStreams))));
+        files.put("/target-manifest.yaml", utf8(ChannelManifestMapper.toYaml(
+                new ChannelManifest("synthetic target manifest", null, null, targetStreams))));
+        files.put("/blocklist.yaml", utf8(blocklist.toString()));
+        files.put("/channel.yaml", utf8(channelYaml("/manifest.yaml")));
+        files.put("/target-channel.yaml", utf8(channelYaml("/target-manifest.yaml")));
+    }
+
+    private String channelYaml(String manifestPath) throws IOException {
+        Channel channel = new Channel("synthetic", null, null,
+                List.of(new Repository(REPOSITORY_ID, getUrl())),
+                new ChannelManifestCoordinate(new URL(getUrl() + manifestPath.substring(1))),
+                new BlocklistCoordinate(new URL(getBlocklistUrl())),
+                Channel.NoStreamStrategy.NONE);
+        return ChannelMapper.toYaml(channel);
+    }
+
+    private List<String> versions() {
+        final List<String> versions = new ArrayList<>();
+        for (int i = 0; i < config.versionsPerArtifact; i++) {
+            for (String qualifier : config.qualifiers) {
+                versions.add(version(i, qualifier));
+            }
+        }
+        return versions;
+    }
+
+    private static String version(int index, String qualifier) {
+        String version = "1." + (index / 10) + "." + (index % 10);
+        return qualifier.isEmpty() ? version : version + "." + qualifier;
+    }
+
+    /**
+     * @param offset 0 for the latest micro version of the base minor, 1 for the one before it, etc.
+     */
+    private String latestBaseMicro(int offset) {
+        int micros = Math.min(10, config.versionsPerArtifact);
+        return version(Math.max(0, micros - 1 - offset), config.qualifiers.get(0));
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    public String getRepository() {
+        return REPOSITORY_ID + "::" + getUrl();
+    }
+
+    public String getChannelUrl() {
+        return getUrl() + "channel.yaml";
+    }
+
+    public String getTargetChannelUrl() {
+        return getUrl() + "target-channel.yaml";
+    }
+
+    public String getManifestUrl() {
+        return getUrl() + "manifest.yaml";
+    }
+
+    public String getBlocklistUrl() {
+        return getUrl() + "blocklist.yaml";
+    }
+
+    public List<Stream> getBaseStreams() {
+        return baseStreams;
+    }
+
+    /**
+     * @return streams of the target channel, which are also the expected micro upgrades of the base channel streams
+     */
+    public List<Stream> getTargetStreams() {
+        return targetStreams;
+    }
+
+    /**
+     * Publishes a Maven index of all the GAVs of the repository into given directory, which can then serve as a file
+     * repository that contains nothing but the index.
+     */
+    public void writeMavenIndex(Path directory) throws IOException {
+        final List<String> artifacts = new ArrayList<>();
+        versionsByPath.forEach((gaPath, versions) -> {
+            String groupId = gaPath.substring(0, gaPath.lastIndexOf('/')).replace('/', '.');
+            String artifactId = gaPath.substring(gaPath.lastIndexOf('/') + 1);
+            versions.forEach(version -> artifacts.add(groupId + ":" + artifactId + ":" + version));
+        });
+        new MavenIndexWriter(directory, "synthetic").writeIndex(artifacts);
+    }
+
+    /**
+     * Writes the maven-metadata.xml files of all the components of the repository into given directory, which can
+     * then serve as a file repository.
+     */
+    public void writeMetadata(Path directory) throws IOException {
+        for (Map.Entry<String, List<String>> entry : versionsByPath.entrySet()) {
+            Path metadataFile = directory.resolve(entry.getKey()).resolve("maven-metadata.xml");
+            Files.createDirectories(metadataFile.getParent());
+            Files.writeString(metadataFile, metadata(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getFailedRequestCount() {
+        return failedRequestCount.get();
+    }
+
+    /**
+     * @return number of conditional requests answered with "304 Not Modified"
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    public void resetCounters() {
+        requestCount.set(0);
+        failedRequestCount.set(0);
+        notModifiedCount.set(0);
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            if (!latency.isZero()) {
+                Thread.sleep(latency.toMillis());
+            }
+            if (shouldFail()) {
+                failedRequestCount.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            boolean checksum = path.endsWith(".sha1");
+            byte[] content = content(checksum ? path.substring(0, path.length() - ".sha1".length()) : path);
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (checksum) {
+                content = utf8(sha1(content));
+            }
+            String etag = "\"" + sha1(content) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean shouldFail() {
+        if (failureRate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < failureRate;
+        }
+    }
+
+    private byte[] content(String path) {
+        byte[] file = files.get(path);
+        if (file != null) {
+            return file;
+        }
+
+        // <group path>/<artifactId>/maven-metadata.xml
+        if (path.endsWith("/maven-metadata.xml")) {
+            String gaPath = path.substring(1, path.length() - "/maven-metadata.xml".length());
+            List<String> versions = versionsByPath.get(gaPath);
+            return versions == null ? null : utf8(metadata(gaPath, versions));
+        }
+
+        // <group path>/<artifactId>/<version>/<artifactId>-<version>.pom
+        if (path.endsWith(".pom")) {
+            String[] segments = path.substring(1).split("/");
+            if (segments.length < 4) {
+                return null;
+            }
+            String version = segments[segments.length - 2];
+            String artifactId = segments[segments.length - 3];
+            String gaPath = path.substring(1, path.lastIndexOf("/" + version + "/"));
+            List<String> versions = versionsByPath.get(gaPath);
+            if (versions == null || !versions.contains(version)
+                    || !segments[segments.length - 1].equals(artifactId + "-" + version + ".pom")) {
+                return null;
+            }
+            String groupId = gaPath.substring(0, gaPath.lastIndexOf('/')).replace('/', '.');
+            return utf8("<project><modelVersion>4.0.0</modelVersion><groupId>" + groupId + "</groupId><artifactId>"
+                    + artifactId + "</artifactId><version>" + version + "</version><packaging>pom</packaging></project>");
+        }
+        return null;
+    }
+
+    private static String metadata(String gaPath, List<String> versions) {
+        int separator = gaPath.lastIndexOf('/');
+        StringBuilder sb = new StringBuilder();
+        sb.append("<metadata><groupId>").append(gaPath.substring(0, separator).replace('/', '.')).append("</groupId>")
+                .append("<artifactId>").append(gaPath.substring(separator + 1)).append("</artifactId>")
+                .append("<versioning><versions>");
+        for (String version : versions) {
+            sb.append("<version>").append(version).append("</version>");
+        }
+        sb.append("</versions></versioning></metadata>");
+        return sb.toString();
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Builder {
+        private int groups = 1;
+        private int artifactsPerGroup = 10;
+        private int versionsPerArtifact = 20;
+        private List<String> qualifiers = List.of("");
+        private boolean blockLatestMicro;
+        private Duration latency = Duration.ZERO;
+        private double failureRate;
+        private long seed = 1;
+        private int serverThreads = 16;
+
+        public Builder groups(int groups) {
+            this.groups = groups;
+            return this;
+        }
+
+        public Builder artifactsPerGroup(int artifactsPerGroup) {
+            this.artifactsPerGroup = artifactsPerGroup;
+            return this;
+        }
+
+        public Builder versionsPerArtifact(int versionsPerArtifact) {
+            this.versionsPerArtifact = versionsPerArtifact;
+            return this;
+        }
+
+        /**
+         * @param qualifiers version qualifiers, the first one is used for the channel streams; an empty string
+         *                   stands for versions without qualifier
+         */
+        public Builder qualifiers(String... qualifiers) {
+            this.qualifiers = List.of(qualifiers);
+            return this;
+        }
+
+        /**
+         * Blocklist the latest micro version of the base minor of every GA.
+         */
+        public Builder blockLatestMicro(boolean blockLatestMicro) {
+            this.blockLatestMicro = blockLatestMicro;
+            return this;
+        }
+
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder failureRate(double failureRate) {
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder serverThreads(int serverThreads) {
+            this.serverThreads = serverThreads;
+            return this;
+        }
+
+        public SyntheticRepository start() throws IOException {
+            return new SyntheticRepository(this);
+        }
+    }
+}
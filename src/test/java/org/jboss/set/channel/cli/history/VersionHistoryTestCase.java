@@ -0,0 +1,103 @@
+package org.jboss.set.channel.cli.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VersionHistoryTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFirstSeenIsKeptAcrossRuns() throws Exception {
+        Path file = tempDir.resolve("history").resolve("versions.bin");
+        VersionHistory history = VersionHistory.load(file);
+        history.record("org.foo", "foo", "1.0.1", 1000);
+        history.record("org.foo", "foo", "1.0.2", 1000);
+        history.save();
+
+        history = VersionHistory.load(file);
+        history.record("org.foo", "foo", "1.0.1", 2000);
+        history.record("org.foo", "foo", "1.0.3", 2000);
+        history.record("org.bar", "bar", "2.0.0", 2000);
+        history.save();
+
+        history = VersionHistory.load(file);
+        assertThat(history.size()).isEqualTo(2);
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.1")).isEqualTo(Instant.ofEpochMilli(1000));
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.3")).isEqualTo(Instant.ofEpochMilli(2000));
+        assertThat(history.getFirstSeen("org.bar", "bar", "2.0.0")).isEqualTo(Instant.ofEpochMilli(2000));
+        assertThat(history.getFirstSeen("org.bar", "bar", "2.0.1")).isNull();
+    }
+
+    @Test
+    public void testSaveOnlyAppendsNewVersions() throws Exception {
+        Path file = tempDir.resolve("versions.bin");
+        VersionHistory history = VersionHistory.load(file);
+        history.record("org.foo", "foo", "1.0.1", 1000);
+        history.save();
+        long size = Files.size(file);
+
+        history.save();
+        history.record("org.foo", "foo", "1.0.1", 2000);
+        history.save();
+        assertThat(Files.size(file)).isEqualTo(size);
+
+        history.record("org.foo", "foo", "1.0.2", 2000);
+        history.save();
+        assertThat(Files.size(file)).isGreaterThan(size);
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        Path file = tempDir.resolve("versions.bin");
+        for (int i = 0; i < VersionHistory.MAX_BATCHES; i++) {
+            VersionHistory history = VersionHistory.load(file);
+            history.record("org.foo", "foo", "1.0." + i, i);
+            history.save();
+        }
+        long size = Files.size(file);
+
+        VersionHistory history = VersionHistory.load(file);
+        history.record("org.foo", "foo", "2.0.0", 5000);
+        history.save();
+        assertThat(Files.size(file)).isLessThan(size);
+
+        history = VersionHistory.load(file);
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.0")).isEqualTo(Instant.ofEpochMilli(0));
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0." + (VersionHistory.MAX_BATCHES - 1)))
+                .isEqualTo(Instant.ofEpochMilli(VersionHistory.MAX_BATCHES - 1));
+        assertThat(history.getFirstSeen("org.foo", "foo", "2.0.0")).isEqualTo(Instant.ofEpochMilli(5000));
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        Path file = tempDir.resolve("versions.bin");
+        VersionHistory history = VersionHistory.load(file);
+        history.record("org.foo", "foo", "1.0.1", 1000);
+        history.save();
+        long size = Files.size(file);
+        history.record("org.foo", "foo", "1.0.2", 2000);
+        history.save();
+
+        // Cut the last batch short, as if the process was killed while appending it
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, (int) (size + (content.length - size) / 2)));
+
+        history = VersionHistory.load(file);
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.1")).isEqualTo(Instant.ofEpochMilli(1000));
+        history.record("org.foo", "foo", "1.0.3", 3000);
+        history.save();
+
+        history = VersionHistory.load(file);
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.1")).isEqualTo(Instant.ofEpochMilli(1000));
+        assertThat(history.getFirstSeen("org.foo", "foo", "1.0.3")).isEqualTo(Instant.ofEpochMilli(3000));
+    }
+}
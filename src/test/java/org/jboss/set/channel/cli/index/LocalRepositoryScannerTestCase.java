@@ -0,0 +1,126 @@
+package org.jboss.set.channel.cli.index;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class LocalRepositoryScannerTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testScanDirectory() throws IOException {
+        Path repository = tempDir.resolve("repository");
+        writeFile(repository.resolve("org/example/a1/maven-metadata.xml"), metadata("org.example", "a1", "1.0", "1.1"));
+        writeFile(repository.resolve("org/example/a2/maven-metadata.xml"), metadata("org.example", "a2", "2.0"));
+        writeFile(repository.resolve("org/example/a2/2.0/a2-2.0.pom"), "<project/>");
+
+        List<Stream> streams = LocalRepositoryScanner.scanRepository(repository);
+        Assertions.assertThat(streams).extracting("groupId", "artifactId", "version").containsExactlyInAnyOrder(
+                Tuple.tuple("org.example", "a1", "1.0"),
+                Tuple.tuple("org.example", "a1", "1.1"),
+                Tuple.tuple("org.example", "a2", "2.0")
+        );
+    }
+
+    @Test
+    public void testScanZipFile() throws IOException {
+        Path zipFile = tempDir.resolve("repository.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            writeEntry(zos, "product-maven-repository/maven-repository/org/example/a1/maven-metadata.xml",
+                    metadata("org.example", "a1", "1.0", "1.1"));
+            writeEntry(zos, "product-maven-repository/maven-repository/org/example/a1/1.0/a1-1.0.pom", "<project/>");
+            writeEntry(zos, "product-maven-repository/maven-repository/org/example/a2/maven-metadata.xml",
+                    metadata("org.example", "a2", "2.0"));
+        }
+
+        List<Stream> streams = LocalRepositoryScanner.scanRepository(zipFile);
+        Assertions.assertThat(streams).extracting("groupId", "artifactId", "version").containsExactlyInAnyOrder(
+                Tuple.tuple("org.example", "a1", "1.0"),
+                Tuple.tuple("org.example", "a1", "1.1"),
+                Tuple.tuple("org.example", "a2", "2.0")
+        );
+    }
+
+    @Test
+    public void testIndexRepository() throws IOException {
+        Path repository = tempDir.resolve("repository");
+        writeFile(repository.resolve("org/example/a1/maven-metadata.xml"), metadata("org.example", "a1", "1.0", "1.1"));
+        writeFile(repository.resolve("org/example/a2/maven-metadata.xml"), metadata("org.example", "a2", "2.0"));
+
+        VersionIndex index = LocalRepositoryScanner.indexRepository(repository);
+        Assertions.assertThat(index.size()).isEqualTo(2);
+        Assertions.assertThat(index.getVersions("org.example", "a1")).containsExactlyInAnyOrder("1.0", "1.1");
+        Assertions.assertThat(index.getVersions("org.example", "a3")).isEmpty();
+    }
+
+    @Test
+    public void testIndexRepositoryWithVersionedGaMetadata() throws IOException {
+        Path repository = tempDir.resolve("repository");
+        // GA level metadata with a top level version, as written by older Maven 2 deploys
+        writeFile(repository.resolve("org/example/a1/maven-metadata.xml"), "<metadata><groupId>org.example</groupId>"
+                + "<artifactId>a1</artifactId><version>1.1</version>"
+                + "<versioning><versions><version>1.0</version><version>1.1</version></versions></versioning></metadata>");
+        // Version level metadata of a snapshot
+        writeFile(repository.resolve("org/example/a2/2.0-SNAPSHOT/maven-metadata.xml"), "<metadata><groupId>org.example</groupId>"
+                + "<artifactId>a2</artifactId><version>2.0-SNAPSHOT</version>"
+                + "<versioning><snapshot><timestamp>20240101.120000</timestamp><buildNumber>1</buildNumber></snapshot>"
+                + "<versions><version>2.0-SNAPSHOT</version></versions></versioning></metadata>");
+
+        VersionIndex index = LocalRepositoryScanner.indexRepository(repository);
+        Assertions.assertThat(index.getVersions("org.example", "a1")).containsExactlyInAnyOrder("1.0", "1.1");
+        Assertions.assertThat(index.getVersions("org.example", "a2")).isEmpty();
+
+        // The manifest scan keeps skipping any metadata with a top level version
+        Assertions.assertThat(LocalRepositoryScanner.scanRepository(repository)).isEmpty();
+    }
+
+    @Test
+    public void testIndexRepositorySkipsCorruptMetadata() throws IOException {
+        Path repository = tempDir.resolve("repository");
+        writeFile(repository.resolve("org/example/a1/maven-metadata.xml"), metadata("org.example", "a1", "1.0", "1.1"));
+        writeFile(repository.resolve("org/example/a2/maven-metadata.xml"), "<metadata><groupId>org.example</group");
+
+        VersionIndex index = LocalRepositoryScanner.indexRepository(repository);
+        Assertions.assertThat(index.getVersions("org.example", "a1")).containsExactlyInAnyOrder("1.0", "1.1");
+        Assertions.assertThat(index.getVersions("org.example", "a2")).isEmpty();
+
+        // Creating a manifest from the repository still fails on the corrupt file
+        Assertions.assertThatThrownBy(() -> LocalRepositoryScanner.scanRepository(repository))
+                .hasMessageContaining("org/example/a2/maven-metadata.xml");
+    }
+
+    private static String metadata(String groupId, String artifactId, String... versions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<metadata><groupId>").append(groupId).append("</groupId>")
+                .append("<artifactId>").append(artifactId).append("</artifactId>")
+                .append("<versioning><versions>");
+        for (String version : versions) {
+            sb.append("<version>").append(version).append("</version>");
+        }
+        sb.append("</versions></versioning></metadata>");
+        return sb.toString();
+    }
+
+    private static void writeFile(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static void writeEntry(ZipOutputStream zos, String name, String content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,83 @@
+package org.jboss.set.channel.cli.index;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.transport.file.FileTransporterFactory;
+import org.eclipse.aether.version.Version;
+import org.jboss.set.channel.cli.fixture.MavenIndexWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryIndexLoaderTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFullAndIncrementalLoad() throws Exception {
+        Path repositoryDir = Files.createDirectories(tempDir.resolve("repository"));
+        Path cacheFile = tempDir.resolve("cache").resolve("index.idx");
+        MavenIndexWriter writer = new MavenIndexWriter(repositoryDir, "chain-1");
+        writer.writeIndex(List.of("org.foo:foo:1.0.0", "org.foo:foo:1.0.1", "org.bar:bar:2.0.0"));
+
+        VersionIndex index = load(repositoryDir, cacheFile);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getVersions("org.foo", "foo")).containsExactlyInAnyOrder("1.0.0", "1.0.1");
+        assertThat(cacheFile).exists();
+
+        // Only the chunks are read from now on
+        Files.delete(repositoryDir.resolve(".index/nexus-maven-repository-index.gz"));
+        writer.writeChunk(1, List.of("org.foo:foo:1.0.2"), List.of("org.foo:foo:1.0.0"));
+        writer.writeChunk(2, List.of("org.baz:baz:3.0.0"), List.of());
+        index = load(repositoryDir, cacheFile);
+        assertThat(index.getVersions("org.foo", "foo")).containsExactlyInAnyOrder("1.0.1", "1.0.2");
+        assertThat(index.getVersions("org.baz", "baz")).containsExactly("3.0.0");
+
+        // Up to date, nothing is downloaded
+        Files.delete(repositoryDir.resolve(".index/nexus-maven-repository-index.1.gz"));
+        Files.delete(repositoryDir.resolve(".index/nexus-maven-repository-index.2.gz"));
+        assertThat(load(repositoryDir, cacheFile).getVersions("org.baz", "baz")).containsExactly("3.0.0");
+
+        // A new chain requires the whole index
+        new MavenIndexWriter(repositoryDir, "chain-2").writeIndex(List.of("org.foo:foo:2.0.0"));
+        index = load(repositoryDir, cacheFile);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.getVersions("org.foo", "foo")).containsExactly("2.0.0");
+    }
+
+    @Test
+    public void testRepositoryWithoutIndex() throws Exception {
+        assertThat(load(Files.createDirectories(tempDir.resolve("repository")), null)).isNull();
+    }
+
+    @Test
+    public void testResolveVersionRange() throws Exception {
+        Path repositoryDir = Files.createDirectories(tempDir.resolve("repository"));
+        new MavenIndexWriter(repositoryDir, "chain-1").writeIndex(List.of("org.foo:foo:1.0.0", "org.foo:foo:1.0.1",
+                "org.foo:foo:1.1.0", "org.foo:foo:1.0.10"));
+        VersionIndex index = load(repositoryDir, null);
+
+        VersionRangeResult result = index.resolveVersionRange(new VersionRangeRequest(
+                new DefaultArtifact("org.foo", "foo", "pom", "(1.0.0,1.1.0)"), List.of(), null));
+        assertThat(result.getVersions()).extracting(Version::toString).containsExactly("1.0.1", "1.0.10");
+    }
+
+    private static VersionIndex load(Path repositoryDir, Path cacheFile) throws Exception {
+        RemoteRepository repository = new RemoteRepository.Builder("indexed", "default",
+                repositoryDir.toUri().toString()).build();
+        try (Transporter transporter = new FileTransporterFactory()
+                .newInstance(new DefaultRepositorySystemSession(), repository)) {
+            return RepositoryIndexLoader.load(transporter, cacheFile);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.jboss.set.channel.cli.manifestbuilder;
+
+import org.codehaus.plexus.PlexusConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerateDependencyGroupsCommandTestCase {
+
+    private static final int PROJECTS = 4;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testParallelOutputMatchesSequential() throws Exception {
+        List<String> pomFiles = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            pomFiles.add(writeProject(i).toString());
+        }
+
+        String sequential = generateGroups(pomFiles, 1);
+        String parallel = generateGroups(pomFiles, PROJECTS);
+
+        assertThat(parallel).isEqualTo(sequential);
+        // Properties are resolved per project, the module overriding an inherited property gets its own value
+        assertThat(sequential)
+                .contains("org.project0:a1:1.0.0", "org.project0:b1:3.0.0", "org.project3:a1:1.3.0",
+                        "org.project3:b1:3.3.0", "org.project2:common:2.0.0")
+                .doesNotContain("org.project0:b1:1.0.0");
+    }
+
+    @Test
+    public void testFullScanUsesSingleContainer() throws Exception {
+        List<String> pomFiles = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            pomFiles.add(writeProject(i).toString());
+        }
+        String sequential = generateGroups(pomFiles, 1);
+
+        // The classpath is not scanned once per thread
+        GenerateDependencyGroupsCommand command = new GenerateDependencyGroupsCommand();
+        assertThat(generateGroups(command, pomFiles, PROJECTS, "--classpath-scanning", PlexusConstants.SCANNING_ON))
+                .isEqualTo(sequential);
+        assertThat(command.getWorkerCount()).isEqualTo(1);
+    }
+
+    private String generateGroups(List<String> pomFiles, int parallelism) throws IOException {
+        return generateGroups(new GenerateDependencyGroupsCommand(), pomFiles, parallelism);
+    }
+
+    private String generateGroups(GenerateDependencyGroupsCommand command, List<String> pomFiles, int parallelism,
+                                  String... extraArgs) throws IOException {
+        Path output = tempDir.resolve("groups-" + parallelism + "-" + extraArgs.length + ".yaml");
+        List<String> args = new ArrayList<>(pomFiles);
+        args.addAll(List.of("--output-file", output.toString(), "--parallelism", String.valueOf(parallelism)));
+        args.addAll(List.of(extraArgs));
+        int exitCode = new CommandLine(command).execute(args.toArray(new String[0]));
+        assertThat(exitCode).isZero();
+        return Files.readString(output);
+    }
+
+    /**
+     * Writes a multi-module project with two BOM modules, the second one overriding a version property inherited
+     * from the parent.
+     *
+     * @return the parent POM file
+     */
+    private Path writeProject(int index) throws IOException {
+        String groupId = "org.project" + index;
+        Path projectDir = Files.createDirectories(tempDir.resolve("project" + index));
+        Path parentPom = projectDir.resolve("pom.xml");
+        Files.writeString(parentPom, """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <modelVersion>4.0.0</modelVersion>
+                    <groupId>%1$s</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>1.0</version>
+                    <packaging>pom</packaging>
+                    <properties>
+                        <bom.groupId>%1$s</bom.groupId>
+                        <version.shared>1.%2$d.0</version.shared>
+                        <version.common>2.0.0</version.common>
+                    </properties>
+                    <modules>
+                        <module>bom-a</module>
+                        <module>bom-b</module>
+                    </modules>
+                </project>
+                """.formatted(groupId, index));
+        writeBom(projectDir, groupId, "bom-a", "a", "");
+        writeBom(projectDir, groupId, "bom-b", "b", """
+                    <properties>
+                        <version.shared>3.%d.0</version.shared>
+                    </properties>
+                """.formatted(index));
+        return parentPom;
+    }
+
+    private static void writeBom(Path projectDir, String groupId, String artifactId, String prefix, String properties)
+            throws IOException {
+        Path moduleDir = Files.createDirectories(projectDir.resolve(artifactId));
+        Files.writeString(moduleDir.resolve("pom.xml"), """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <modelVersion>4.0.0</modelVersion>
+                    <parent>
+                        <groupId>%1$s</groupId>
+                        <artifactId>parent</artifactId>
+                        <version>1.0</version>
+                    </parent>
+                    <artifactId>%2$s</artifactId>
+                    <packaging>pom</packaging>
+                %4$s
+                    <dependencyManagement>
+                        <dependencies>
+                            <dependency>
+                                <groupId>${bom.groupId}</groupId>
+                                <artifactId>%3$s1</artifactId>
+                                <version>${version.shared}</version>
+                            </dependency>
+                            <dependency>
+                                <groupId>%1$s</groupId>
+                                <artifactId>%3$s2</artifactId>
+                                <version>${version.shared}</version>
+                            </dependency>
+                            <dependency>
+                                <groupId>%1$s</groupId>
+                                <artifactId>common</artifactId>
+                                <version>${version.common}</version>
+                            </dependency>
+                        </dependencies>
+                    </dependencyManagement>
+                </project>
+                """.formatted(groupId, artifactId, prefix, properties));
+    }
+}
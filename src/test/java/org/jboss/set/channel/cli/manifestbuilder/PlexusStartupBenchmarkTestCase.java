@@ -0,0 +1,58 @@
+package org.jboss.set.channel.cli.manifestbuilder;
+
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.io.PomIO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the Plexus container startup time with full classpath scanning and with index based component discovery.
+ * <p>
+ * Run with `mvn test -Pbenchmark`.
+ */
+@Tag("benchmark")
+public class PlexusStartupBenchmarkTestCase {
+
+    private static final int ITERATIONS = 5;
+
+    @Test
+    public void benchmarkContainerStartup() throws Exception {
+        // The first iteration of each mode is reported separately, as it includes class loading.
+        long indexFirst = startContainer(PlexusConstants.SCANNING_INDEX);
+        long scanFirst = startContainer(PlexusConstants.SCANNING_ON);
+
+        long indexTotal = 0;
+        long scanTotal = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            indexTotal += startContainer(PlexusConstants.SCANNING_INDEX);
+            scanTotal += startContainer(PlexusConstants.SCANNING_ON);
+        }
+
+        System.out.printf("Plexus startup, classpath scanning \"%s\": first %d ms, average %d ms%n",
+                PlexusConstants.SCANNING_ON, toMillis(scanFirst), toMillis(scanTotal / ITERATIONS));
+        System.out.printf("Plexus startup, classpath scanning \"%s\": first %d ms, average %d ms%n",
+                PlexusConstants.SCANNING_INDEX, toMillis(indexFirst), toMillis(indexTotal / ITERATIONS));
+    }
+
+    private static long startContainer(String classpathScanning) throws Exception {
+        long start = System.nanoTime();
+        PlexusContainer container = GenerateDependencyGroupsCommand.createContainer(classpathScanning);
+        try {
+            assertThat(container.lookup(PomIO.class)).isNotNull();
+            assertThat(container.lookup(ManipulationSession.class)).isNotNull();
+            return System.nanoTime() - start;
+        } finally {
+            container.dispose();
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,86 @@
+package org.jboss.set.channel.cli.progress;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProgressReporterTestCase {
+
+    private static final String CENTRAL = "https://repo.maven.apache.org/maven2/";
+    private static final String MRRC = "https://maven.repository.redhat.com/ga/";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ProgressReporter reporter = new ProgressReporter("find-upgrades", ProgressReporter.Mode.PLAIN,
+            new PrintStream(output, true, StandardCharsets.UTF_8), clock::get);
+
+    @Test
+    public void testCompletedAndEta() {
+        reporter.setTotal(10);
+        for (int i = 0; i < 4; i++) {
+            reporter.completed();
+        }
+        clock.set(TimeUnit.SECONDS.toNanos(40));
+
+        assertThat(reporter.formatStatus())
+                .startsWith("find-upgrades: 4/10 (40%), elapsed 40s, ETA 1m00s")
+                .endsWith("| in-flight 0");
+    }
+
+    @Test
+    public void testUnknownTotal() {
+        reporter.completed();
+        assertThat(reporter.formatStatus()).startsWith("find-upgrades: 1, elapsed 0s |");
+    }
+
+    @Test
+    public void testRepositoryRatesAreComputedPerPeriod() {
+        for (int i = 0; i < 20; i++) {
+            reporter.requestStarted(CENTRAL);
+            reporter.bytesTransferred(CENTRAL, 1024);
+            reporter.requestFinished(CENTRAL);
+        }
+        reporter.requestStarted(CENTRAL);
+        reporter.requestStarted(MRRC);
+        clock.set(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(reporter.formatStatus())
+                .contains("| https://repo.maven.apache.org/maven2: 2.1 req/s, 2.0 kB/s")
+                .contains("| https://maven.repository.redhat.com/ga: 0.1 req/s, 0 B/s")
+                .endsWith("| in-flight 2");
+
+        // Nothing happened during the following period
+        clock.set(TimeUnit.SECONDS.toNanos(20));
+        assertThat(reporter.formatStatus())
+                .contains("| https://repo.maven.apache.org/maven2: 0.0 req/s, 0 B/s")
+                .endsWith("| in-flight 2");
+    }
+
+    @Test
+    public void testSummaryLinesStopWhenCompleted() {
+        reporter.setTotal(1);
+        reporter.render();
+        reporter.completed();
+        reporter.render();
+        // E.g. find-upgrades in the watch mode keeps running after all the streams were processed
+        reporter.render();
+        reporter.render();
+
+        assertThat(output.toString(StandardCharsets.UTF_8).lines())
+                .hasSize(2)
+                .last().asString().startsWith("find-upgrades: 1/1 (100%)");
+    }
+
+    @Test
+    public void testFormatDuration() {
+        assertThat(ProgressReporter.formatDuration(TimeUnit.SECONDS.toNanos(59))).isEqualTo("59s");
+        assertThat(ProgressReporter.formatDuration(TimeUnit.SECONDS.toNanos(61))).isEqualTo("1m01s");
+        assertThat(ProgressReporter.formatDuration(TimeUnit.MINUTES.toNanos(125))).isEqualTo("2h05m00s");
+    }
+}
@@ -11,9 +11,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a helper class that generates a formatted report file, which is to be checked visually.
@@ -34,8 +32,9 @@ public class FormattingReportBuilderTestCase {
         upgrades.add(Pair.of(artifact = new MavenArtifact("org.jboss", "jboss-component", "pom", null, "1.1.0", new File(".")),
                 List.of("1.1.1", "1.1.2", "1.2.0")));
 
-        HashMap<MavenArtifact, Map<String, String>> artifactToRepositoryMap = new HashMap<>();
-        artifactToRepositoryMap.put(artifact, Map.of("1.1.1", "mrrc", "1.1.2", "mrrc2"));
+        RepositoryAttribution repositoryAttribution = new RepositoryAttribution(List.of("mrrc", "mrrc2"));
+        repositoryAttribution.record(artifact, "1.1.1", "mrrc");
+        repositoryAttribution.record(artifact, "1.1.2", "mrrc2");
 
         String html = new FormattingReportBuilder()
                 .withRepositories(List.of(
@@ -43,7 +42,7 @@ public class FormattingReportBuilderTestCase {
                         new Repository("mrrc2", "https://maven.repository.redhat.com/ga/")
                 ))
                 .withUpgrades(upgrades)
-                .withArtifactToRepositoryMap(artifactToRepositoryMap)
+                .withRepositoryAttribution(repositoryAttribution)
                 .build();
         Files.writeString(Path.of("dev-report.html"), html);
     }
@@ -0,0 +1,93 @@
+package org.jboss.set.channel.cli.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jboss.set.channel.cli.history.VersionHistory;
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.MavenArtifact;
+import org.wildfly.channel.Repository;
+
+import java.io.File;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InteractiveReportBuilderTestCase {
+
+    private static final String DATA_START = "<script type=\"application/json\" id=\"report-data\">";
+    private static final List<Repository> REPOSITORIES = List.of(
+            new Repository("mrrc", "https://maven.repository.redhat.com/ga/"),
+            new Repository("central", "https://repo1.maven.org/maven2/"));
+
+    @Test
+    public void testReportData() throws Exception {
+        MavenArtifact component = new MavenArtifact("org.jboss", "jboss-component", "pom", null, "1.1.0",
+                new File("."));
+        MavenArtifact dto = new MavenArtifact("org.apache.activemq", "artemis-dto", "pom", null, "2.21.0",
+                new File("."));
+        RepositoryAttribution repositoryAttribution = new RepositoryAttribution(List.of("mrrc", "central"));
+        repositoryAttribution.record(component, "1.1.1", "mrrc");
+        repositoryAttribution.record(component, "1.2.0", "central");
+
+        String html = new InteractiveReportBuilder()
+                .withRepositories(REPOSITORIES)
+                .withUpgrades(List.of(
+                        Pair.of(component, List.of("1.1.1", "1.1.2", "1.2.0")),
+                        Pair.of(dto, List.of("2.28.0"))))
+                .withRepositoryAttribution(repositoryAttribution)
+                .build();
+
+        JsonNode data = readData(html);
+        assertThat(data.get("repositories").get(1).get("id").asText()).isEqualTo("central");
+        assertThat(data.get("groupIds").toString()).isEqualTo("[\"org.apache.activemq\",\"org.jboss\"]");
+        assertThat(data.get("components").toString()).isEqualTo("["
+                + "[0,\"artemis-dto\",\"2.21.0\",[\"2.28.0\"],[-1],[0]],"
+                + "[1,\"jboss-component\",\"1.1.0\",[\"1.1.1\",\"1.1.2\",\"1.2.0\"],[0,-1,1],[1,1,0]]"
+                + "]");
+    }
+
+    @Test
+    public void testSinceColumn() throws Exception {
+        MavenArtifact component = new MavenArtifact("org.jboss", "jboss-component", "pom", null, "1.1.0",
+                new File("."));
+        VersionHistory versionHistory = VersionHistory.empty();
+        versionHistory.record("org.jboss", "jboss-component", "1.1.1");
+
+        String html = new InteractiveReportBuilder()
+                .withRepositories(REPOSITORIES)
+                .withUpgrades(List.of(Pair.of(component, List.of("1.1.1", "1.1.2"))))
+                .withVersionHistory(versionHistory)
+                .build();
+
+        JsonNode since = readData(html).get("components").get(0).get(6);
+        assertThat(since.get(0).asText()).endsWith("(0 days)");
+        assertThat(since.get(1).asText()).isEmpty();
+    }
+
+    @Test
+    public void testDataCannotEndScriptElement() throws Exception {
+        String artifactId = "</script><script>alert(1)</script>";
+        String html = new InteractiveReportBuilder()
+                .withRepositories(REPOSITORIES)
+                .withUpgrades(List.of(Pair.of(new MavenArtifact("org.foo", artifactId, "pom", null, "1.0.0",
+                        new File(".")), List.of("1.0.1"))))
+                .build();
+
+        assertThat(html).doesNotContain(artifactId);
+        assertThat(readData(html).get("components").get(0).get(1).asText()).isEqualTo(artifactId);
+    }
+
+    @Test
+    public void testNoUpgrades() {
+        assertThat(new InteractiveReportBuilder()
+                .withRepositories(REPOSITORIES)
+                .withUpgrades(List.of())
+                .build()).isNull();
+    }
+
+    private static JsonNode readData(String html) throws Exception {
+        int start = html.indexOf(DATA_START) + DATA_START.length();
+        return new ObjectMapper().readTree(html.substring(start, html.indexOf("</script>", start)));
+    }
+}
@@ -0,0 +1,49 @@
+package org.jboss.set.channel.cli.report;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.MavenArtifact;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryAttributionTestCase {
+
+    private final MavenArtifact artifact = new MavenArtifact("org.foo", "foo", "pom", null, "1.0.0", new File("."));
+    private final MavenArtifact otherArtifact = new MavenArtifact("org.foo", "bar", "pom", null, "1.0.0", new File("."));
+
+    @Test
+    public void testRecordedVersions() {
+        RepositoryAttribution attribution = new RepositoryAttribution(List.of("central", "mrrc"));
+        attribution.record(artifact, "1.0.1", "central");
+        attribution.record(artifact, "1.1.0", "mrrc");
+        attribution.record(otherArtifact, "1.0.1", "mrrc");
+
+        assertThat(attribution.getRepositoryId(artifact, "1.0.1")).isEqualTo("central");
+        assertThat(attribution.getRepositoryId(artifact, "1.1.0")).isEqualTo("mrrc");
+        assertThat(attribution.getRepositoryId(otherArtifact, "1.0.1")).isEqualTo("mrrc");
+        assertThat(attribution.getRepositoryId(otherArtifact, "1.1.0")).isNull();
+        assertThat(attribution.getRepositoryId(artifact, "2.0.0")).isNull();
+    }
+
+    @Test
+    public void testUnknownRepositoryIsIgnored() {
+        RepositoryAttribution attribution = new RepositoryAttribution(List.of("central"));
+        attribution.record(artifact, "1.0.1", "unknown");
+        attribution.record(artifact, "1.0.2", null);
+
+        assertThat(attribution.getRepositoryId(artifact, "1.0.1")).isNull();
+        assertThat(attribution.getRepositoryId(artifact, "1.0.2")).isNull();
+    }
+
+    @Test
+    public void testRepositoryIndexAboveByteRange() {
+        List<String> ids = IntStream.range(0, 200).mapToObj(i -> "repo" + i).toList();
+        RepositoryAttribution attribution = new RepositoryAttribution(ids);
+        attribution.record(artifact, "1.0.1", "repo199");
+
+        assertThat(attribution.getRepositoryId(artifact, "1.0.1")).isEqualTo("repo199");
+    }
+}
@@ -0,0 +1,125 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentVersionRangeResolverTestCase {
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+    private static final DefaultArtifact ARTIFACT = new DefaultArtifact("g:a:(1.0,)");
+
+    private final RemoteRepository first = repository("first");
+    private final RemoteRepository second = repository("second");
+    // Behaviour of each repository, returns the versions it provides
+    private final Map<String, Callable<List<String>>> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    @Test
+    public void testVersionsAttributedToFirstRepository() throws Exception {
+        responses.put("first", () -> {
+            // Finishes after the second repository
+            Thread.sleep(200);
+            return List.of("1.1", "1.2");
+        });
+        responses.put("second", () -> List.of("1.2", "1.3"));
+
+        try (ConcurrentVersionRangeResolver resolver = newResolver(Duration.ofSeconds(10), 3)) {
+            ResolvedVersions resolved = resolver.resolveVersionRange(ARTIFACT);
+            assertThat(resolved.getVersions()).map(Object::toString).containsExactly("1.3", "1.2", "1.1");
+            assertThat(resolved.getRepositoryId(parseVersion("1.1"))).isEqualTo("first");
+            assertThat(resolved.getRepositoryId(parseVersion("1.2"))).isEqualTo("first");
+            assertThat(resolved.getRepositoryId(parseVersion("1.3"))).isEqualTo("second");
+            assertThat(resolved.getUnavailableRepositories()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testTimedOutRepositoryIsUnavailable() throws Exception {
+        responses.put("first", () -> List.of("1.1"));
+        responses.put("second", () -> {
+            Thread.sleep(Duration.ofMinutes(1).toMillis());
+            return List.of("1.2");
+        });
+
+        try (ConcurrentVersionRangeResolver resolver = newResolver(Duration.ofMillis(200), 3)) {
+            long start = System.nanoTime();
+            ResolvedVersions resolved = resolver.resolveVersionRange(ARTIFACT);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+            assertThat(resolved.getVersions()).map(Object::toString).containsExactly("1.1");
+            assertThat(resolved.getUnavailableRepositories()).containsExactly("second");
+        }
+    }
+
+    @Test
+    public void testRepositorySkippedWhileBreakerIsOpen() throws Exception {
+        responses.put("first", () -> List.of("1.1"));
+        responses.put("second", () -> {
+            throw new IllegalStateException("Repository failure");
+        });
+
+        try (ConcurrentVersionRangeResolver resolver = newResolver(Duration.ofSeconds(10), 2)) {
+            for (int i = 0; i < 4; i++) {
+                ResolvedVersions resolved = resolver.resolveVersionRange(ARTIFACT);
+                assertThat(resolved.getVersions()).map(Object::toString).containsExactly("1.1");
+                assertThat(resolved.getUnavailableRepositories()).containsExactly("second");
+            }
+            // The breaker opened after two failures, the following queries didn't reach the repository
+            assertThat(requestCounts.get("first")).hasValue(4);
+            assertThat(requestCounts.get("second")).hasValue(2);
+        }
+    }
+
+    private ConcurrentVersionRangeResolver newResolver(Duration timeout, int failureThreshold) {
+        return new ConcurrentVersionRangeResolver(repositorySystem(), null, List.of(first, second), timeout,
+                failureThreshold, Duration.ofHours(1));
+    }
+
+    /**
+     * @return repository system answering version range requests according to {@link #responses}
+     */
+    private RepositorySystem repositorySystem() {
+        return (RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RepositorySystem.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("resolveVersionRange")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    VersionRangeRequest request = (VersionRangeRequest) args[1];
+                    String repositoryId = request.getRepositories().get(0).getId();
+                    requestCounts.computeIfAbsent(repositoryId, id -> new AtomicInteger()).incrementAndGet();
+                    VersionRangeResult result = new VersionRangeResult(request);
+                    for (String version : responses.get(repositoryId).call()) {
+                        result.addVersion(parseVersion(version));
+                    }
+                    return result;
+                });
+    }
+
+    private static Version parseVersion(String version) {
+        try {
+            return VERSION_SCHEME.parseVersion(version);
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static RemoteRepository repository(String id) {
+        return new RemoteRepository.Builder(id, "default", "https://" + id + ".example.org/maven2").build();
+    }
+}
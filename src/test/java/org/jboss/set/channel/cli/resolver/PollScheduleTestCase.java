@@ -0,0 +1,58 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PollScheduleTestCase {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private final PollSchedule schedule = new PollSchedule(Duration.ofMinutes(1), Duration.ofMinutes(8));
+
+    @Test
+    public void testFirstPollAfterMinInterval() {
+        schedule.add("org:a", 0);
+        schedule.add("org:b", 0);
+
+        assertThat(schedule.nextPollMillis()).isEqualTo(MINUTE);
+        assertThat(schedule.takeDue(MINUTE - 1)).isEmpty();
+        assertThat(schedule.takeDue(MINUTE)).containsExactlyInAnyOrder("org:a", "org:b");
+        assertThat(schedule.nextPollMillis()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testDormantComponentBacksOff() {
+        schedule.add("org:a", 0);
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            now = schedule.nextPollMillis();
+            assertThat(schedule.takeDue(now)).containsExactly("org:a");
+            schedule.record("org:a", false, now);
+        }
+        assertThat(schedule.getInterval("org:a")).isEqualTo(Duration.ofMinutes(8));
+        assertThat(schedule.nextPollMillis()).isEqualTo(now + 8 * MINUTE);
+    }
+
+    @Test
+    public void testChangingComponentIsPolledMoreOften() {
+        schedule.add("org:active", 0);
+        schedule.add("org:dormant", 0);
+        for (int i = 0; i < 3; i++) {
+            schedule.record("org:active", false, 0);
+            schedule.record("org:dormant", false, 0);
+        }
+        assertThat(schedule.getInterval("org:active")).isEqualTo(Duration.ofMinutes(8));
+
+        schedule.record("org:active", true, 0);
+        schedule.record("org:active", true, 0);
+        assertThat(schedule.getInterval("org:active")).isEqualTo(Duration.ofMinutes(2));
+        assertThat(schedule.getInterval("org:dormant")).isEqualTo(Duration.ofMinutes(8));
+
+        schedule.record("org:active", true, 0);
+        schedule.record("org:active", true, 0);
+        assertThat(schedule.getInterval("org:active")).isEqualTo(Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,68 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Stream;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryPlannerTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDuplicateGasAreCollapsed() {
+        QueryPlanner planner = new QueryPlanner(null, null, QueryHistory.empty());
+        List<Stream> plan = planner.plan(List.of(
+                new Stream("org.foo", "foo", "1.0.0"),
+                new Stream("org.foo", "foo", "1.0.1"),
+                new Stream("org.bar", "bar", "2.0.0")));
+
+        assertThat(plan).containsExactly(
+                new Stream("org.bar", "bar", "2.0.0"),
+                new Stream("org.foo", "foo", "1.0.0"));
+    }
+
+    @Test
+    public void testFilters() {
+        List<Stream> streams = List.of(
+                new Stream("org.foo", "foo", "1.0.0"),
+                new Stream("org.foo", "foo-impl", "1.0.0"),
+                new Stream("org.foo.sub", "sub", "1.0.0"),
+                new Stream("org.bar", "bar", "1.0.0"));
+
+        assertThat(new QueryPlanner(List.of("org.foo"), null, QueryHistory.empty()).plan(streams))
+                .extracting(Stream::getArtifactId)
+                .containsExactly("foo", "foo-impl");
+        assertThat(new QueryPlanner(List.of("org.foo*"), List.of("org.foo:*-impl"), QueryHistory.empty()).plan(streams))
+                .extracting(Stream::getArtifactId)
+                .containsExactly("foo", "sub");
+        assertThat(new QueryPlanner(null, List.of("org.foo*"), QueryHistory.empty()).plan(streams))
+                .extracting(Stream::getArtifactId)
+                .containsExactly("bar");
+    }
+
+    @Test
+    public void testSlowGasFirst() throws Exception {
+        Path file = tempDir.resolve("history.properties");
+        QueryHistory history = QueryHistory.load(file);
+        history.record("org.a", "fast", 10);
+        history.record("org.b", "slow", 2000);
+        history.record("org.c", "medium", 300);
+        history.save();
+
+        List<Stream> plan = new QueryPlanner(null, null, QueryHistory.load(file)).plan(List.of(
+                new Stream("org.a", "fast", "1.0.0"),
+                new Stream("org.b", "slow", "1.0.0"),
+                new Stream("org.c", "medium", "1.0.0"),
+                new Stream("org.d", "unknown", "1.0.0")));
+
+        // GA without history is expected to take the average time
+        assertThat(plan).extracting(Stream::getArtifactId)
+                .containsExactly("slow", "unknown", "medium", "fast");
+    }
+}
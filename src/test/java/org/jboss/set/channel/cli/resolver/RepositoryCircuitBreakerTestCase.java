@@ -0,0 +1,104 @@
+package org.jboss.set.channel.cli.resolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryCircuitBreakerTestCase {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final RepositoryCircuitBreaker breaker =
+            new RepositoryCircuitBreaker("repo", 3, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        breaker.recordFailure(breaker.allowRequest());
+        breaker.recordFailure(breaker.allowRequest());
+        breaker.recordSuccess(breaker.allowRequest());
+        breaker.recordFailure(breaker.allowRequest());
+        breaker.recordFailure(breaker.allowRequest());
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.allowRequest()).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        breaker.recordFailure(breaker.allowRequest());
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isEqualTo(RepositoryCircuitBreaker.REJECTED);
+    }
+
+    @Test
+    public void testSingleTrialRequestAfterOpenDuration() {
+        openBreaker();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        long trial = breaker.allowRequest();
+        assertThat(trial).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+        // Only one trial request is allowed.
+        assertThat(breaker.allowRequest()).isEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        // Failed trial keeps the breaker open for another period.
+        breaker.recordFailure(trial);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        trial = breaker.allowRequest();
+        assertThat(trial).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+        breaker.recordSuccess(trial);
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.allowRequest()).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+        assertThat(breaker.allowRequest()).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+    }
+
+    @Test
+    public void testOutcomesOfRequestsSentBeforeOpeningAreIgnored() {
+        // Requests in flight when the breaker opens
+        long late1 = breaker.allowRequest();
+        long late2 = breaker.allowRequest();
+        openBreaker();
+
+        // A late success doesn't close the breaker
+        breaker.recordSuccess(late1);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        long trial = breaker.allowRequest();
+        assertThat(trial).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        // A late failure neither prolongs the open period nor ends the trial
+        breaker.recordFailure(late2);
+        assertThat(breaker.allowRequest()).isEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        breaker.recordSuccess(trial);
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    @Test
+    public void testAbandonedTrialIsReplaced() {
+        openBreaker();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        long abandoned = breaker.allowRequest();
+        assertThat(abandoned).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        // The trial never reported back, another one is allowed after the open duration
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        long trial = breaker.allowRequest();
+        assertThat(trial).isNotEqualTo(RepositoryCircuitBreaker.REJECTED);
+
+        breaker.recordSuccess(abandoned);
+        assertThat(breaker.isOpen()).isTrue();
+        breaker.recordSuccess(trial);
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(breaker.allowRequest());
+        }
+        assertThat(breaker.isOpen()).isTrue();
+    }
+}
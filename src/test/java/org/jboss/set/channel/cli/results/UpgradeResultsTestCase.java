@@ -0,0 +1,97 @@
+package org.jboss.set.channel.cli.results;
+
+import org.jboss.set.channel.cli.filter.VersionFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.Stream;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UpgradeResultsTestCase {
+
+    private static final List<Repository> REPOSITORIES = List.of(new Repository("central", "https://repo1/"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testShardsAreDisjointAndComplete() {
+        List<Shard> shards = List.of(new Shard(1, 3), new Shard(2, 3), new Shard(3, 3));
+        for (int i = 0; i < 100; i++) {
+            String artifactId = "artifact-" + i;
+            assertThat(shards.stream().filter(s -> s.contains("org.foo", artifactId))).hasSize(1);
+        }
+        assertThat(Shard.parse("2/3")).isEqualTo(new Shard(2, 3));
+        assertThatThrownBy(() -> Shard.parse("4/3")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Shard.parse("1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testMerge() {
+        UpgradeResults first = new UpgradeResults(REPOSITORIES,
+                List.of(new Stream("org.foo", "foo", "1.0.0")),
+                List.of(upgrade("org.foo", "foo", "1.0.1")),
+                new Shard(1, 2));
+        UpgradeResults second = new UpgradeResults(REPOSITORIES,
+                List.of(new Stream("org.bar", "bar", "2.0.0"), new Stream("org.baz", "baz", "1.0.0")),
+                List.of(upgrade("org.bar", "bar", "2.0.1")),
+                new Shard(2, 2));
+
+        UpgradeResults merged = UpgradeResults.merge(List.of(second, first));
+        assertThat(merged.getShard()).isNull();
+        assertThat(merged.getStreams()).containsExactly(new Stream("org.bar", "bar", "2.0.0"),
+                new Stream("org.baz", "baz", "1.0.0"), new Stream("org.foo", "foo", "1.0.0"));
+        assertThat(merged.getUpgrades()).extracting(UpgradeResults.ComponentUpgrade::groupId)
+                .containsExactly("org.bar", "org.foo");
+
+        assertThatThrownBy(() -> UpgradeResults.merge(List.of(first)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[2]");
+        assertThatThrownBy(() -> UpgradeResults.merge(List.of(first, first, second)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testFilter() {
+        UpgradeResults results = new UpgradeResults(REPOSITORIES,
+                List.of(new Stream("org.foo", "foo", "1.0.0"), new Stream("org.bar", "bar", "1.0.0")),
+                List.of(new UpgradeResults.ComponentUpgrade("org.foo", "foo", "1.0.0", List.of("1.0.1", "1.0.2.Beta1"),
+                                List.of("central", "central"), "1.0.2.Beta1"),
+                        upgrade("org.bar", "bar", "1.0.1")),
+                null);
+
+        UpgradeResults filtered = results.filter((groupId, artifactId) -> groupId.equals("org.foo"),
+                VersionFilter.builder().exclude(Pattern.compile("Beta")).build());
+        assertThat(filtered.getStreams()).isEqualTo(results.getStreams());
+        assertThat(filtered.getUpgrades()).containsExactly(new UpgradeResults.ComponentUpgrade("org.foo", "foo",
+                "1.0.0", List.of("1.0.1"), List.of("central"), null));
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception {
+        UpgradeResults results = new UpgradeResults(REPOSITORIES,
+                List.of(new Stream("org.foo", "foo", "1.0.0"), new Stream("org.bar", "bar", Pattern.compile("2\\..*"))),
+                List.of(upgrade("org.foo", "foo", "1.0.1")),
+                new Shard(1, 2));
+        Path file = tempDir.resolve("results.bin");
+        UpgradeResultsFile.write(file, results);
+
+        UpgradeResults read = UpgradeResultsFile.read(file);
+        assertThat(read.getShard()).isEqualTo(new Shard(1, 2));
+        assertThat(read.getRepositories()).extracting(Repository::getId).containsExactly("central");
+        assertThat(read.getStreams()).extracting(Stream::getArtifactId).containsExactly("bar", "foo");
+        assertThat(read.getStreams().get(0).getVersionPattern().pattern()).isEqualTo("2\\..*");
+        assertThat(read.getUpgrades()).containsExactlyElementsOf(results.getUpgrades());
+    }
+
+    private static UpgradeResults.ComponentUpgrade upgrade(String groupId, String artifactId, String version) {
+        return new UpgradeResults.ComponentUpgrade(groupId, artifactId, "1.0.0", List.of(version), List.of("central"),
+                version);
+    }
+}
@@ -0,0 +1,73 @@
+package org.jboss.set.channel.cli.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MetadataSnapshotTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        Path archive = tempDir.resolve("snapshot.zip");
+        Path channelFile = tempDir.resolve("channel.yaml");
+        Files.writeString(channelFile, "schemaVersion: 2.0.0");
+        URL channelUrl = channelFile.toUri().toURL();
+
+        // Record
+        Path recordedRepository = Files.createDirectories(tempDir.resolve("recorded-repository"));
+        try (MetadataSnapshot snapshot = MetadataSnapshot.record(archive, recordedRepository)) {
+            URL localized = snapshot.localize(channelUrl);
+            assertThat(localized).isNotEqualTo(channelUrl);
+            assertThat(readString(localized)).isEqualTo("schemaVersion: 2.0.0");
+
+            // The local repository gets populated during the run.
+            writeFile(recordedRepository.resolve("org/example/a/maven-metadata-central.xml"), "<metadata/>");
+        }
+        assertThat(archive).exists();
+
+        // Changes in the original resources don't affect the replay.
+        Files.writeString(channelFile, "changed");
+
+        // Replay
+        Path replayedRepository = Files.createDirectories(tempDir.resolve("replayed-repository"));
+        try (MetadataSnapshot snapshot = MetadataSnapshot.replay(archive, replayedRepository)) {
+            assertThat(snapshot.isReplaying()).isTrue();
+            assertThat(replayedRepository.resolve("org/example/a/maven-metadata-central.xml")).hasContent("<metadata/>");
+            assertThat(readString(snapshot.localize(channelUrl))).isEqualTo("schemaVersion: 2.0.0");
+
+            URL unknownUrl = tempDir.resolve("unknown.yaml").toUri().toURL();
+            assertThatThrownBy(() -> snapshot.localize(unknownUrl))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("not present in the snapshot");
+        }
+    }
+
+    @Test
+    public void testInvalidArchive() throws Exception {
+        Path archive = tempDir.resolve("not-a-snapshot.zip");
+        Files.write(archive, new byte[0]);
+        assertThatThrownBy(() -> MetadataSnapshot.replay(archive, tempDir))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static String readString(URL url) throws IOException {
+        try (var is = url.openStream()) {
+            return new String(is.readAllBytes());
+        }
+    }
+
+    private static void writeFile(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,109 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTestCase {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("repo", 4, 8);
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStable() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            saturate(LATENCY, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhenUnused() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(LATENCY, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testLimitIsHalvedOnOverload() throws Exception {
+        limiter.acquire();
+        limiter.release(LATENCY, AdaptiveConcurrencyLimiter.Outcome.OVERLOAD);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        limiter.acquire();
+        limiter.release(LATENCY, AdaptiveConcurrencyLimiter.Outcome.OVERLOAD);
+        limiter.acquire();
+        limiter.release(LATENCY, AdaptiveConcurrencyLimiter.Outcome.OVERLOAD);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyGrows() throws Exception {
+        saturate(LATENCY, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        int limit = limiter.getLimit();
+
+        saturate(LATENCY * 5, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertThat(limiter.getLimit()).isLessThan(limit);
+    }
+
+    @Test
+    public void testIgnoredOutcomeKeepsLimit() throws Exception {
+        limiter.acquire();
+        limiter.release(LATENCY * 100, AdaptiveConcurrencyLimiter.Outcome.IGNORE);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testAcquireBlocksAtLimit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        thread.start();
+
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        limiter.release(LATENCY, AdaptiveConcurrencyLimiter.Outcome.IGNORE);
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+        thread.join();
+    }
+
+    @Test
+    public void testOverloadDetection() {
+        assertThat(ConcurrencyLimitingTransporter.isOverload(
+                new HttpStatusException(URI.create("http://localhost/"), 429))).isTrue();
+        assertThat(ConcurrencyLimitingTransporter.isOverload(
+                new HttpStatusException(URI.create("http://localhost/"), 503))).isTrue();
+        assertThat(ConcurrencyLimitingTransporter.isOverload(
+                new HttpStatusException(URI.create("http://localhost/"), 404))).isFalse();
+        assertThat(ConcurrencyLimitingTransporter.isOverload(new SocketTimeoutException())).isTrue();
+    }
+
+    /**
+     * Fills all the permits, then releases them with given latency and outcome.
+     */
+    private void saturate(long latency, AdaptiveConcurrencyLimiter.Outcome outcome) throws InterruptedException {
+        int permits = limiter.getLimit();
+        for (int i = 0; i < permits; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < permits; i++) {
+            limiter.release(latency, outcome);
+        }
+    }
+}
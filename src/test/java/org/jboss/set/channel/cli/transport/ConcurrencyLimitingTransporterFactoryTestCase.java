@@ -0,0 +1,50 @@
+package org.jboss.set.channel.cli.transport;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitingTransporterFactoryTestCase {
+
+    private final ConcurrencyLimitingTransporterFactory factory =
+            new ConcurrencyLimitingTransporterFactory(new TransporterFactory() {
+                @Override
+                public Transporter newInstance(RepositorySystemSession session, RemoteRepository repository) {
+                    return (Transporter) Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{Transporter.class}, (proxy, method, args) -> null);
+                }
+
+                @Override
+                public float getPriority() {
+                    return 0;
+                }
+            });
+    private final RepositorySystemSession session = new DefaultRepositorySystemSession();
+
+    @Test
+    public void testLimitersAreKeptPerUrl() throws Exception {
+        // Unnamed repositories get the same generated IDs in different lists
+        AdaptiveConcurrencyLimiter first = limiter(repository("repo-0", "https://first.example.org/maven2"));
+        AdaptiveConcurrencyLimiter second = limiter(repository("repo-0", "https://second.example.org/maven2"));
+        assertThat(first).isNotSameAs(second);
+
+        // The limiter survives the transporter, also when the repository is named differently
+        assertThat(limiter(repository("repo-0", "https://first.example.org/maven2"))).isSameAs(first);
+        assertThat(limiter(repository("first", "https://first.example.org/maven2/"))).isSameAs(first);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(RemoteRepository repository) throws Exception {
+        return ((ConcurrencyLimitingTransporter) factory.newInstance(session, repository)).getLimiter();
+    }
+
+    private static RemoteRepository repository(String id, String url) {
+        return new RemoteRepository.Builder(id, "default", url).build();
+    }
+}
@@ -0,0 +1,149 @@
+package org.jboss.set.channel.cli.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdkHttpTransporterTestCase {
+
+    private static final String METADATA_PATH = "/org/example/artifact/maven-metadata.xml";
+    private static final String ETAG = "\"v1\"";
+    // Redirect to the same server, reached via a different host name
+    private static final String MOVED_AWAY_PATH = "/moved-away/maven-metadata.xml";
+    private static final String MOVED_PATH = "/moved/maven-metadata.xml";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    // Status codes of the responses sent by the server
+    private final List<Integer> responses = new CopyOnWriteArrayList<>();
+    // Host header and whether credentials were sent, for each request
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile String metadata = "<metadata><version>1.0</version></metadata>";
+    private HttpServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConditionalGetUsesCachedContent() throws Exception {
+        JdkHttpTransporter transporter = newTransporter(new ConditionalGetCache());
+
+        assertThat(get(transporter, METADATA_PATH)).isEqualTo(metadata);
+        // The server confirms the content didn't change, the cached content is used
+        String previous = metadata;
+        metadata = "<metadata><version>2.0</version></metadata>";
+        assertThat(get(transporter, METADATA_PATH)).isEqualTo(previous);
+        assertThat(responses).containsExactly(200, 304);
+    }
+
+    @Test
+    public void testPlainGetWithoutCache() throws Exception {
+        JdkHttpTransporter transporter = newTransporter(null);
+
+        assertThat(get(transporter, METADATA_PATH)).isEqualTo(metadata);
+        assertThat(get(transporter, METADATA_PATH)).isEqualTo(metadata);
+        assertThat(responses).containsExactly(200, 200);
+    }
+
+    @Test
+    public void testCredentialsAreNotRedirectedToOtherHost() throws Exception {
+        JdkHttpTransporter transporter = newTransporter(null, new AuthenticationBuilder()
+                .addUsername("user")
+                .addPassword("secret")
+                .build());
+
+        assertThat(get(transporter, MOVED_PATH)).isEqualTo(metadata);
+        assertThat(get(transporter, MOVED_AWAY_PATH)).isEqualTo(metadata);
+        assertThat(responses).containsExactly(302, 200, 302, 200);
+        assertThat(requests).containsExactly(
+                "localhost with credentials", "localhost with credentials",
+                "localhost with credentials", "127.0.0.1 without credentials");
+    }
+
+    private JdkHttpTransporter newTransporter(ConditionalGetCache cache) throws Exception {
+        return newTransporter(cache, null);
+    }
+
+    private JdkHttpTransporter newTransporter(ConditionalGetCache cache, Authentication authentication)
+            throws Exception {
+        RemoteRepository repository = new RemoteRepository.Builder("test", "default",
+                "http://localhost:" + server.getAddress().getPort() + "/")
+                .setAuthentication(authentication)
+                .build();
+        return new JdkHttpTransporter(client, cache, new DefaultRepositorySystemSession(), repository);
+    }
+
+    private static String get(JdkHttpTransporter transporter, String path) throws Exception {
+        GetTask task = new GetTask(URI.create(path.substring(1)));
+        transporter.get(task);
+        return task.getDataString();
+    }
+
+    /**
+     * Serves the metadata with an ETag, answering requests carrying the ETag with "304 Not Modified", no matter what
+     * the current content is. The {@link #MOVED_PATH} and {@link #MOVED_AWAY_PATH} are redirected to the metadata.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            requests.add(host.substring(0, host.lastIndexOf(':'))
+                    + (exchange.getRequestHeaders().containsKey("Authorization") ? " with" : " without")
+                    + " credentials");
+            String path = exchange.getRequestURI().getPath();
+            if (MOVED_PATH.equals(path)) {
+                exchange.getResponseHeaders().set("Location", METADATA_PATH);
+                send(exchange, 302, null);
+            } else if (MOVED_AWAY_PATH.equals(path)) {
+                exchange.getResponseHeaders().set("Location",
+                        "http://127.0.0.1:" + server.getAddress().getPort() + METADATA_PATH);
+                send(exchange, 302, null);
+            } else if (!METADATA_PATH.equals(path)) {
+                send(exchange, 404, null);
+            } else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                send(exchange, 304, null);
+            } else {
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                send(exchange, 200, metadata.getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        responses.add(status);
+        exchange.sendResponseHeaders(status, body == null ? -1 : body.length);
+        if (body != null) {
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+}
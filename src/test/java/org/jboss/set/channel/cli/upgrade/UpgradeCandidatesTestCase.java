@@ -0,0 +1,50 @@
+package org.jboss.set.channel.cli.upgrade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UpgradeCandidatesTestCase {
+
+    // Ordered from the highest to the lowest:
+    private static final List<String> VERSIONS = List.of(
+            "3.0.0", "2.1.0.redhat-00001", "2.1.0", "1.3.0", "1.2.5.redhat-00002", "1.2.5.redhat-00001", "1.2.4",
+            "1.2.3");
+
+    @Test
+    public void testClassification() {
+        UpgradeCandidates candidates = UpgradeCandidates.classify("1.2.3", VERSIONS, v -> !v.equals("1.2.3"));
+
+        assertThat(candidates.getCandidates()).containsExactly(
+                new UpgradeCandidates.Candidate("3.0.0", UpgradeType.MAJOR),
+                new UpgradeCandidates.Candidate("2.1.0.redhat-00001", UpgradeType.MAJOR),
+                new UpgradeCandidates.Candidate("2.1.0", UpgradeType.MAJOR),
+                new UpgradeCandidates.Candidate("1.3.0", UpgradeType.MINOR),
+                new UpgradeCandidates.Candidate("1.2.5.redhat-00002", UpgradeType.QUALIFIER_CHANGE),
+                new UpgradeCandidates.Candidate("1.2.5.redhat-00001", UpgradeType.QUALIFIER_CHANGE),
+                new UpgradeCandidates.Candidate("1.2.4", UpgradeType.MICRO));
+        assertThat(candidates.getReportedVersions())
+                .containsExactly("1.2.4", "1.2.5.redhat-00002", "1.3.0", "2.1.0", "2.1.0.redhat-00001", "3.0.0");
+    }
+
+    @Test
+    public void testPolicies() {
+        UpgradeCandidates candidates = UpgradeCandidates.classify("1.2.3", VERSIONS, v -> !v.equals("1.2.3"));
+
+        assertThat(StandardUpgradePolicy.LATEST_MICRO.select(candidates)).hasValue("1.2.5.redhat-00002");
+        assertThat(StandardUpgradePolicy.LATEST_MICRO_SAME_QUALIFIER.select(candidates)).hasValue("1.2.4");
+        assertThat(StandardUpgradePolicy.LATEST_MINOR.select(candidates)).hasValue("1.3.0");
+        assertThat(StandardUpgradePolicy.LATEST.select(candidates)).hasValue("3.0.0");
+    }
+
+    @Test
+    public void testNoCandidates() {
+        UpgradeCandidates candidates = UpgradeCandidates.classify("1.2.3", VERSIONS, v -> false);
+
+        assertThat(candidates.isEmpty()).isTrue();
+        assertThat(candidates.getReportedVersions()).isEmpty();
+        assertThat(StandardUpgradePolicy.LATEST.select(candidates)).isEmpty();
+    }
+}
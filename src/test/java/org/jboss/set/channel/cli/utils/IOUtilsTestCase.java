@@ -0,0 +1,61 @@
+package org.jboss.set.channel.cli.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Stream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IOUtilsTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testManifestIsIndependentOfStreamOrder() throws Exception {
+        List<Stream> streams = new ArrayList<>(List.of(
+                new Stream("org.b", "zeta", "1.0.0"),
+                new Stream("org.a", "beta", "1.0.0"),
+                new Stream("org.a", "alpha", "2.0.0")));
+        Path first = tempDir.resolve("first.yaml");
+        Path second = tempDir.resolve("second.yaml");
+
+        IOUtils.writeManifestFile(first, streams);
+        Collections.reverse(streams);
+        IOUtils.writeManifestFile(second, streams);
+
+        String content = Files.readString(first);
+        assertThat(content).isEqualTo(Files.readString(second));
+        assertThat(content.indexOf("alpha")).isLessThan(content.indexOf("beta"));
+        assertThat(content.indexOf("beta")).isLessThan(content.indexOf("zeta"));
+    }
+
+    @Test
+    public void testUnchangedFileIsNotWritten() throws Exception {
+        Path file = tempDir.resolve("report.html");
+        byte[] content = "<html></html>".getBytes(StandardCharsets.UTF_8);
+        assertThat(IOUtils.writeIfChanged(file, content)).isTrue();
+
+        FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(file, past);
+
+        assertThat(IOUtils.writeIfChanged(file, content)).isFalse();
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(past);
+
+        assertThat(IOUtils.writeIfChanged(file, "<html>changed</html>".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(Files.readString(file)).isEqualTo("<html>changed</html>");
+        assertThat(Files.getLastModifiedTime(file)).isNotEqualTo(past);
+        try (java.util.stream.Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+}